@@ -0,0 +1,142 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.openqa.selenium.WebElement;
+
+/**
+ * CompletableFuture variants of {@link WebElementsUtil} operations, obtained
+ * with {@link WebElementsUtil#async()}. Operations of one util are queued and
+ * run one at a time in submission order, so its driver is never hit
+ * concurrently, while operations of different sessions overlap on a shared
+ * pool of session threads (virtual threads on JDK 21+).
+ *
+ * <pre>
+ * CompletableFuture&lt;String&gt; a = WebElementsUtil.getInstance(driverA).async().getText(LocatorType.ID, "user", 15);
+ * CompletableFuture&lt;String&gt; b = WebElementsUtil.getInstance(driverB).async().getText(LocatorType.ID, "user", 15);
+ * a.thenCombine(b, String::equals).join();
+ * </pre>
+ *
+ * Futures complete exceptionally with whatever the blocking operation throws.
+ *
+ */
+public class AsyncWebElementsUtil {
+
+	private final WebElementsUtil util;
+	private final Executor lane;
+
+	/**
+	 * session threads shared by all utils, created on first use.
+	 */
+	private static final class SharedExecutor {
+		private static final ExecutorService INSTANCE = newExecutor();
+
+		private static ExecutorService newExecutor() {
+			ExecutorService virtual = SessionExecutor.newVirtualThreadExecutor();
+			return virtual != null ? virtual : SessionExecutor.newPlatformThreadExecutor();
+		}
+	}
+
+	AsyncWebElementsUtil(WebElementsUtil util) {
+		this(util, null);
+	}
+
+	/**
+	 * @param util
+	 * @param executor
+	 *            executor running operations, null for shared session threads.
+	 */
+	AsyncWebElementsUtil(WebElementsUtil util, Executor executor) {
+		this.util = util;
+		this.lane = new SerialExecutor(executor != null ? executor : SharedExecutor.INSTANCE);
+	}
+
+	/**
+	 * @return blocking util operations are run on.
+	 */
+	public WebElementsUtil getUtil() {
+		return util;
+	}
+
+	/**
+	 * queue any operation on this session.
+	 *
+	 * @param operation
+	 * @return future completed with operation result.
+	 */
+	public <T> CompletableFuture<T> submit(Function<WebElementsUtil, T> operation) {
+		return CompletableFuture.supplyAsync(() -> operation.apply(util), lane);
+	}
+
+	public CompletableFuture<Void> run(Consumer<WebElementsUtil> operation) {
+		return CompletableFuture.runAsync(() -> operation.accept(util), lane);
+	}
+
+	public CompletableFuture<WebElement> getElement(LocatorType type, String locatorValue, int wait) {
+		return submit(u -> u.getElement(type, locatorValue, wait));
+	}
+
+	public CompletableFuture<List<WebElement>> getElements(LocatorType type, String locatorValue, int wait) {
+		return submit(u -> u.getElements(type, locatorValue, wait));
+	}
+
+	public CompletableFuture<WebElement> getVisibleElement(LocatorType type, String locatorValue, int wait) {
+		return submit(u -> u.getVisibleElement(type, locatorValue, wait));
+	}
+
+	public CompletableFuture<List<WebElement>> getVisibleElements(LocatorType type, String locatorValue, int wait) {
+		return submit(u -> u.getVisibleElements(type, locatorValue, wait));
+	}
+
+	public CompletableFuture<Boolean> waitUntilWebElementHidden(LocatorType type, String locatorValue, int wait) {
+		return submit(u -> u.waitUntilWebElementHidden(type, locatorValue, wait));
+	}
+
+	public CompletableFuture<Void> waitAngularElementToHidden(LocatorType type, String locatorValue, int waitInSec) {
+		return run(u -> u.waitAngularElementToHidden(type, locatorValue, waitInSec));
+	}
+
+	public CompletableFuture<Boolean> waitForAppIdle(int waitInSec) {
+		return submit(u -> u.waitForAppIdle(waitInSec));
+	}
+
+	public CompletableFuture<String> getText(LocatorType type, String locatorValue, int waitInSec) {
+		return submit(u -> u.getText(type, locatorValue, waitInSec));
+	}
+
+	public CompletableFuture<List<String>> webElementsToText(List<WebElement> webelements) {
+		return submit(u -> u.webElementsToText(webelements));
+	}
+
+	public CompletableFuture<ElementTable> readProperties(LocatorType type, String locatorValue,
+			List<String> properties) {
+		return submit(u -> u.readProperties(type, locatorValue, properties));
+	}
+
+	public CompletableFuture<DropdownSnapshot> getDropdownSnapshot(LocatorType type, String selectLocatorValue) {
+		return submit(u -> u.getDropdownSnapshot(type, selectLocatorValue));
+	}
+
+	public CompletableFuture<Void> clickElement(LocatorType type, String locatorValue, int waitInSec) {
+		return run(u -> u.clickElement(type, locatorValue, waitInSec));
+	}
+
+	public CompletableFuture<Void> sendKeys(LocatorType type, String locatorValue, String text, int waitInSec) {
+		return run(u -> u.sendKeys(type, locatorValue, text, waitInSec));
+	}
+
+	public CompletableFuture<Void> selectDropDownByText(LocatorType type, String locatorValue, int wait,
+			String text) {
+		return run(u -> u.selectDropDownByText(type, locatorValue, wait, text));
+	}
+
+	public CompletableFuture<Void> selectDropDownByValue(LocatorType type, String locatorValue, int wait,
+			String value) {
+		return run(u -> u.selectDropDownByValue(type, locatorValue, wait, value));
+	}
+}
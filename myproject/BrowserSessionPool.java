@@ -0,0 +1,406 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of warm browser sessions with their {@link WebElementsUtil}s, so tests
+ * don't pay browser start up for every test. Between leases a session is
+ * reset instead of restarted: localStorage and sessionStorage of current
+ * page are cleared, cookies are deleted, browser goes to about:blank and
+ * settings of the session's {@link WebElementsUtil} (timeout profile, wait
+ * modes, healer, tracked driver timeouts) are put back to what they were when
+ * the session was started.
+ *
+ * Sessions are health checked when leased and recycled (quit and replaced on
+ * demand) when the check fails, when the lease was marked broken, when reset
+ * fails, or after {@link #getMaxLeases()} leases. Threads waiting for a
+ * session are signalled as soon as one is released, or recycled which frees
+ * a slot for a new one.
+ *
+ * <pre>
+ * BrowserSessionPool pool = new BrowserSessionPool(FirefoxDriver::new, 4, 50);
+ * pool.warmUp();
+ * try (BrowserSessionPool.Lease lease = pool.acquire(2, TimeUnit.MINUTES)) {
+ * 	lease.getDriver().get(url);
+ * 	lease.getUtil().clickElementById("login");
+ * }
+ * </pre>
+ *
+ * Cookies are deleted through WebDriver, which only reaches cookies of the
+ * current domain; tests spanning several domains should use
+ * {@link Lease#markBroken()} to get a fresh browser.
+ *
+ */
+public class BrowserSessionPool implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BrowserSessionPool.class);
+	private static final String BLANK = "about:blank";
+
+	private final Supplier<? extends WebDriver> factory;
+	private final int maxSessions;
+	private final int maxLeases;
+	private final BlockingQueue<Session> idle = new LinkedBlockingQueue<Session>();
+	private final AtomicInteger sessions = new AtomicInteger();
+	private final ReentrantLock lock = new ReentrantLock();
+	/**
+	 * signalled under lock when a session is added to idle or a slot is freed.
+	 */
+	private final Condition available = lock.newCondition();
+	private final LongAdder created = new LongAdder();
+	private final LongAdder recycled = new LongAdder();
+	private volatile boolean closed;
+
+	private static final class Session {
+		private final WebDriver driver;
+		private final WebElementsUtil util;
+		private final Settings settings;
+		private int leases;
+
+		private Session(WebDriver driver) {
+			this.driver = driver;
+			this.util = WebElementsUtil.getInstance(driver);
+			this.settings = new Settings(util);
+		}
+	}
+
+	/**
+	 * util settings a test may change, saved when session is started and
+	 * restored by reset.
+	 */
+	private static final class Settings {
+		private final TimeoutProfile timeoutProfile;
+		private final HideWaitMode hideWaitMode;
+		private final boolean autoWaitForAppIdle;
+		private final boolean resilientElements;
+		private final boolean elementCache;
+		private final LocatorHealer locatorHealer;
+		private final int implicitWaitSec;
+		private final int scriptTimeoutSec;
+
+		private Settings(WebElementsUtil util) {
+			timeoutProfile = util.getTimeoutProfile();
+			hideWaitMode = util.getHideWaitMode();
+			autoWaitForAppIdle = util.isAutoWaitForAppIdle();
+			resilientElements = util.isResilientElements();
+			elementCache = util.isElementCache();
+			locatorHealer = util.getLocatorHealer();
+			implicitWaitSec = util.getImplicitWait();
+			scriptTimeoutSec = util.getScriptTimeout();
+		}
+
+		/**
+		 * driver timeouts are only sent when they changed. An implicit wait
+		 * unknown at start is put back to what no wait lookups restore.
+		 */
+		private void restore(WebElementsUtil util) {
+			util.setTimeoutProfile(timeoutProfile);
+			util.setHideWaitMode(hideWaitMode);
+			util.setAutoWaitForAppIdle(autoWaitForAppIdle);
+			util.setResilientElements(resilientElements);
+			util.setElementCache(elementCache);
+			util.setLocatorHealer(locatorHealer);
+			if (util.getImplicitWait() >= 0) {
+				util.setImplicitWait(implicitWaitSec >= 0 ? implicitWaitSec : util.defaultImplicitWait());
+			}
+			if (util.getScriptTimeout() != scriptTimeoutSec) {
+				util.setScriptTimeout(scriptTimeoutSec);
+			}
+		}
+	}
+
+	/**
+	 * session leased from pool, close it to give session back.
+	 */
+	public final class Lease implements AutoCloseable {
+		private final Session session;
+		private boolean broken;
+		private boolean released;
+
+		private Lease(Session session) {
+			this.session = session;
+		}
+
+		public WebDriver getDriver() {
+			return session.driver;
+		}
+
+		public WebElementsUtil getUtil() {
+			return session.util;
+		}
+
+		/**
+		 * recycle the session instead of reusing it, e.g. after browser crash
+		 * or test failure that may have left it in a bad state.
+		 */
+		public void markBroken() {
+			broken = true;
+		}
+
+		@Override
+		public void close() {
+			if (!released) {
+				released = true;
+				release(session, broken);
+			}
+		}
+	}
+
+	/**
+	 * @param factory
+	 *            starts a new browser session.
+	 * @param maxSessions
+	 *            max number of sessions alive at a time.
+	 * @param maxLeases
+	 *            number of leases after which a session is recycled.
+	 */
+	public BrowserSessionPool(Supplier<? extends WebDriver> factory, int maxSessions, int maxLeases) {
+		if (maxSessions < 1 || maxLeases < 1) {
+			throw new IllegalArgumentException("maxSessions and maxLeases must be positive");
+		}
+		this.factory = factory;
+		this.maxSessions = maxSessions;
+		this.maxLeases = maxLeases;
+	}
+
+	/**
+	 * start sessions in parallel until pool holds {@link #getMaxSessions()}
+	 * sessions.
+	 *
+	 * @throws WebDriverException
+	 *             if a session couldn't be started, sessions started by other
+	 *             threads are kept.
+	 */
+	public void warmUp() {
+		List<CompletableFuture<Void>> starts = new ArrayList<CompletableFuture<Void>>();
+		ExecutorService executor = SessionExecutor.newPlatformThreadExecutor();
+		try {
+			while (reserve()) {
+				starts.add(CompletableFuture.runAsync(() -> offer(newSession()), executor));
+			}
+			CompletableFuture.allOf(starts.toArray(new CompletableFuture<?>[0])).join();
+		} catch (RuntimeException e) {
+			throw e.getCause() instanceof WebDriverException ? (WebDriverException) e.getCause() : e;
+		} finally {
+			executor.shutdown();
+		}
+		LOG.debug("warmed up {} sessions", idle.size());
+	}
+
+	/**
+	 * lease an idle session, starting a new one if pool is not full.
+	 *
+	 * @param timeout
+	 *            max time to wait for a session to be released or recycled.
+	 * @param unit
+	 * @return lease to be closed when test is done with the session.
+	 * @throws WebDriverException
+	 *             if no session is available within timeout.
+	 */
+	public Lease acquire(long timeout, TimeUnit unit) {
+		long end = System.nanoTime() + unit.toNanos(timeout);
+		while (true) {
+			Session session = take(end, timeout, unit);
+			if (isHealthy(session)) {
+				session.leases++;
+				return new Lease(session);
+			}
+			LOG.warn("browser session failed health check, recycling it");
+			recycle(session);
+		}
+	}
+
+	/**
+	 * @return idle session, or a new one once a slot is free, waiting until
+	 *         end for either.
+	 */
+	private Session take(long end, long timeout, TimeUnit unit) {
+		lock.lock();
+		try {
+			while (true) {
+				if (closed) {
+					throw new IllegalStateException("Session pool is closed");
+				}
+				Session session = idle.poll();
+				if (session != null) {
+					return session;
+				}
+				if (reserve()) {
+					break;
+				}
+				long remaining = end - System.nanoTime();
+				if (remaining <= 0) {
+					throw new WebDriverException("No browser session available within " + timeout + " " + unit);
+				}
+				try {
+					available.awaitNanos(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new WebDriverException(e);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+		// browser start up is slow, don't hold the lock for it
+		return newSession();
+	}
+
+	private boolean reserve() {
+		while (true) {
+			int current = sessions.get();
+			if (current >= maxSessions) {
+				return false;
+			}
+			if (sessions.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private Session newSession() {
+		try {
+			Session session = new Session(factory.get());
+			created.increment();
+			return session;
+		} catch (RuntimeException e) {
+			sessions.decrementAndGet();
+			signalAvailable();
+			throw e;
+		}
+	}
+
+	private static boolean isHealthy(Session session) {
+		try {
+			if (session.driver instanceof RemoteWebDriver
+					&& ((RemoteWebDriver) session.driver).getSessionId() == null) {
+				return false;
+			}
+			session.driver.getWindowHandle();
+			return true;
+		} catch (WebDriverException e) {
+			return false;
+		}
+	}
+
+	private void release(Session session, boolean broken) {
+		if (closed || broken || session.leases >= maxLeases || !reset(session)) {
+			recycle(session);
+		} else {
+			offer(session);
+		}
+	}
+
+	/**
+	 * @return false if session couldn't be reset.
+	 */
+	private static boolean reset(Session session) {
+		try {
+			if (session.util.supportsScripts()) {
+				session.util.runScript(JsScripts.CLEAR_STORAGE);
+			}
+			session.driver.manage().deleteAllCookies();
+			session.driver.get(BLANK);
+			session.util.clearElementCache();
+			session.settings.restore(session.util);
+			return true;
+		} catch (WebDriverException e) {
+			LOG.warn("couldn't reset browser session, recycling it", e);
+			return false;
+		}
+	}
+
+	private void recycle(Session session) {
+		recycled.increment();
+		try {
+			WebElementsUtil.quit(session.driver);
+		} catch (WebDriverException e) {
+			LOG.debug("quitting recycled session failed", e);
+		} finally {
+			sessions.decrementAndGet();
+			signalAvailable();
+		}
+	}
+
+	private void offer(Session session) {
+		idle.add(session);
+		signalAvailable();
+	}
+
+	private void signalAvailable() {
+		lock.lock();
+		try {
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getMaxSessions() {
+		return maxSessions;
+	}
+
+	public int getMaxLeases() {
+		return maxLeases;
+	}
+
+	/**
+	 * @return number of live sessions, idle or leased.
+	 */
+	public int getSessionCount() {
+		return sessions.get();
+	}
+
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	/**
+	 * @return number of sessions started so far.
+	 */
+	public long getCreatedCount() {
+		return created.sum();
+	}
+
+	/**
+	 * @return number of sessions quit because they were broken, unhealthy or
+	 *         reached max leases.
+	 */
+	public long getRecycledCount() {
+		return recycled.sum();
+	}
+
+	/**
+	 * quit idle sessions, leased sessions are quit when released.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		lock.lock();
+		try {
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		Session session;
+		while ((session = idle.poll()) != null) {
+			recycle(session);
+		}
+	}
+}
@@ -0,0 +1,886 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Selector;
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.logging.Logs;
+
+/**
+ * In-process WebDriver over a static HTML DOM parsed with jsoup, for
+ * browserless checks of page logic and templates with
+ * {@link WebElementsUtil}. Starts instantly and answers commands in
+ * microseconds.
+ *
+ * Supports every {@link LocatorType} (XPath through the JDK XPath engine),
+ * {@link org.openqa.selenium.support.ui.Select}, click on checkboxes, radios,
+ * options and links, sendKeys and clear on inputs and textareas. Page
+ * scripts are not run and there is no layout: element location and size are
+ * 0, and visibility only considers <code>hidden</code>, inline
+ * <code>display:none</code> / <code>visibility:hidden</code>, hidden inputs and
+ * angular's <code>ng-hide</code> class. It is not a JavascriptExecutor, so
+ * WebElementsUtil uses its native fallbacks. Not thread safe, like any
+ * driver.
+ *
+ * <pre>
+ * DomDriver driver = new DomDriver();
+ * driver.loadHtml("&lt;input id='user'&gt;");
+ * WebElementsUtil.getInstance(driver).sendKeysById("user", "admin");
+ * </pre>
+ *
+ */
+// By.* of Selenium 3.141.59 still locates through the deprecated Finds*
+// interfaces; they're qualified since Java 8 warns on deprecated imports
+@SuppressWarnings("deprecation")
+public class DomDriver implements WebDriver, org.openqa.selenium.internal.FindsById,
+		org.openqa.selenium.internal.FindsByClassName, org.openqa.selenium.internal.FindsByXPath,
+		org.openqa.selenium.internal.FindsByCssSelector, org.openqa.selenium.internal.FindsByName,
+		org.openqa.selenium.internal.FindsByTagName, org.openqa.selenium.internal.FindsByLinkText {
+
+	private static final String BLANK = "about:blank";
+	private static final String WINDOW_HANDLE = "dom";
+
+	private final Map<String, Cookie> cookies = new LinkedHashMap<String, Cookie>();
+	private final List<Page> history = new ArrayList<Page>();
+	private int historyIndex = -1;
+	private Document document;
+	private Element activeElement;
+	private Dimension windowSize = new Dimension(1280, 1024);
+	private Point windowPosition = new Point(0, 0);
+
+	private static final class Page {
+		private final String url;
+		private final String html;
+
+		private Page(String url, String html) {
+			this.url = url;
+			this.html = html;
+		}
+	}
+
+	public DomDriver() {
+		document = Document.createShell(BLANK);
+	}
+
+	/**
+	 * load page from html source, e.g. a rendered template.
+	 *
+	 * @param html
+	 */
+	public void loadHtml(String html) {
+		loadHtml(html, BLANK);
+	}
+
+	/**
+	 * @param html
+	 * @param url
+	 *            URL reported by {@link #getCurrentUrl()} and base of relative
+	 *            links.
+	 */
+	public void loadHtml(String html, String url) {
+		push(new Page(url, html));
+	}
+
+	/**
+	 * @return parsed document of current page.
+	 */
+	public Document getDocument() {
+		return document;
+	}
+
+	private void push(Page page) {
+		while (history.size() > historyIndex + 1) {
+			history.remove(history.size() - 1);
+		}
+		history.add(page);
+		historyIndex++;
+		show(page);
+	}
+
+	private void show(Page page) {
+		document = page.html != null ? Jsoup.parse(page.html, page.url) : fetch(page.url);
+		activeElement = null;
+	}
+
+	private static Document fetch(String url) {
+		try {
+			if (BLANK.equals(url)) {
+				return Document.createShell(BLANK);
+			}
+			if (url.startsWith("data:")) {
+				int comma = url.indexOf(',');
+				return Jsoup.parse(URLDecoder.decode(url.substring(comma + 1), "UTF-8"), BLANK);
+			}
+			if (url.startsWith("file:")) {
+				return Jsoup.parse(new File(URI.create(url)), StandardCharsets.UTF_8.name(), url);
+			}
+			return Jsoup.connect(url).get();
+		} catch (IOException | IllegalArgumentException e) {
+			throw new WebDriverException("Couldn't load " + url, e);
+		}
+	}
+
+	@Override
+	public void get(String url) {
+		push(new Page(url, null));
+	}
+
+	@Override
+	public String getCurrentUrl() {
+		return historyIndex < 0 ? BLANK : history.get(historyIndex).url;
+	}
+
+	@Override
+	public String getTitle() {
+		return document.title();
+	}
+
+	@Override
+	public String getPageSource() {
+		return document.outerHtml();
+	}
+
+	@Override
+	public void close() {
+		quit();
+	}
+
+	@Override
+	public void quit() {
+		history.clear();
+		historyIndex = -1;
+		cookies.clear();
+		document = Document.createShell(BLANK);
+	}
+
+	@Override
+	public Set<String> getWindowHandles() {
+		return Collections.singleton(WINDOW_HANDLE);
+	}
+
+	@Override
+	public String getWindowHandle() {
+		return WINDOW_HANDLE;
+	}
+
+	@Override
+	public WebElement findElement(By by) {
+		return by.findElement(this);
+	}
+
+	@Override
+	public List<WebElement> findElements(By by) {
+		return by.findElements(this);
+	}
+
+	@Override
+	public WebElement findElementById(String using) {
+		return first(findElementsById(using), "id", using);
+	}
+
+	@Override
+	public List<WebElement> findElementsById(String using) {
+		return wrap(document.getElementsByAttributeValue("id", using));
+	}
+
+	@Override
+	public WebElement findElementByClassName(String using) {
+		return first(findElementsByClassName(using), "class name", using);
+	}
+
+	@Override
+	public List<WebElement> findElementsByClassName(String using) {
+		return wrap(document.getElementsByClass(using));
+	}
+
+	@Override
+	public WebElement findElementByXPath(String using) {
+		return first(findElementsByXPath(using), "xpath", using);
+	}
+
+	@Override
+	public List<WebElement> findElementsByXPath(String using) {
+		return wrap(xpath(document, using));
+	}
+
+	@Override
+	public WebElement findElementByCssSelector(String using) {
+		return first(findElementsByCssSelector(using), "css selector", using);
+	}
+
+	@Override
+	public List<WebElement> findElementsByCssSelector(String using) {
+		return wrap(css(document, using));
+	}
+
+	@Override
+	public WebElement findElementByName(String using) {
+		return first(findElementsByName(using), "name", using);
+	}
+
+	@Override
+	public List<WebElement> findElementsByName(String using) {
+		return wrap(document.getElementsByAttributeValue("name", using));
+	}
+
+	@Override
+	public WebElement findElementByTagName(String using) {
+		return first(findElementsByTagName(using), "tag name", using);
+	}
+
+	@Override
+	public List<WebElement> findElementsByTagName(String using) {
+		return wrap(document.getElementsByTag(using));
+	}
+
+	@Override
+	public WebElement findElementByLinkText(String using) {
+		return first(findElementsByLinkText(using), "link text", using);
+	}
+
+	@Override
+	public List<WebElement> findElementsByLinkText(String using) {
+		return wrap(links(document, using, false));
+	}
+
+	@Override
+	public WebElement findElementByPartialLinkText(String using) {
+		return first(findElementsByPartialLinkText(using), "partial link text", using);
+	}
+
+	@Override
+	public List<WebElement> findElementsByPartialLinkText(String using) {
+		return wrap(links(document, using, true));
+	}
+
+	private static Elements xpath(Element root, String xpath) {
+		try {
+			return root.selectXpath(xpath);
+		} catch (RuntimeException e) {
+			throw new InvalidSelectorException("Invalid xpath: " + xpath, e);
+		}
+	}
+
+	private static Elements css(Element root, String css) {
+		try {
+			Elements found = root.select(css);
+			found.remove(root);
+			return found;
+		} catch (Selector.SelectorParseException e) {
+			throw new InvalidSelectorException("Invalid css selector: " + css, e);
+		}
+	}
+
+	private static Elements links(Element root, String text, boolean partial) {
+		Elements links = new Elements();
+		for (Element a : root.getElementsByTag("a")) {
+			String t = a.text().trim();
+			if (partial ? t.contains(text) : t.equals(text)) {
+				links.add(a);
+			}
+		}
+		return links;
+	}
+
+	private List<WebElement> wrap(Elements elements) {
+		List<WebElement> wrapped = new ArrayList<WebElement>(elements.size());
+		for (Element element : elements) {
+			wrapped.add(new DomElement(element));
+		}
+		return wrapped;
+	}
+
+	private static WebElement first(List<WebElement> found, String how, String using) {
+		if (found.isEmpty()) {
+			throw new NoSuchElementException("Unable to locate element by " + how + ": " + using);
+		}
+		return found.get(0);
+	}
+
+	@Override
+	public TargetLocator switchTo() {
+		return new DomTargetLocator();
+	}
+
+	@Override
+	public Navigation navigate() {
+		return new DomNavigation();
+	}
+
+	@Override
+	public Options manage() {
+		return new DomOptions();
+	}
+
+	/**
+	 * element of current document. Elements of a previous page, or removed
+	 * from the document, are stale.
+	 */
+	private final class DomElement implements WebElement, WrapsDriver, org.openqa.selenium.internal.FindsById,
+			org.openqa.selenium.internal.FindsByClassName, org.openqa.selenium.internal.FindsByXPath,
+			org.openqa.selenium.internal.FindsByCssSelector, org.openqa.selenium.internal.FindsByName,
+			org.openqa.selenium.internal.FindsByTagName, org.openqa.selenium.internal.FindsByLinkText {
+
+		private final Element element;
+
+		private DomElement(Element element) {
+			this.element = element;
+		}
+
+		private Element live() {
+			if (element.ownerDocument() != document) {
+				throw new StaleElementReferenceException("Element is no longer attached to the DOM: " + this);
+			}
+			return element;
+		}
+
+		@Override
+		public WebDriver getWrappedDriver() {
+			return DomDriver.this;
+		}
+
+		@Override
+		public void click() {
+			Element el = live();
+			activeElement = el;
+			if (!isEnabled()) {
+				return;
+			}
+			String tag = el.normalName();
+			String type = el.attr("type").toLowerCase(Locale.ROOT);
+			if ("input".equals(tag) && "checkbox".equals(type)) {
+				setBoolean(el, "checked", !el.hasAttr("checked"));
+			} else if ("input".equals(tag) && "radio".equals(type)) {
+				Element scope = form(el);
+				for (Element radio : (scope != null ? scope : document).select("input[type=radio]")) {
+					if (radio.attr("name").equals(el.attr("name"))) {
+						radio.removeAttr("checked");
+					}
+				}
+				el.attr("checked", "checked");
+			} else if ("option".equals(tag)) {
+				Element select = el.closest("select");
+				if (select != null && select.hasAttr("multiple")) {
+					setBoolean(el, "selected", !el.hasAttr("selected"));
+				} else {
+					if (select != null) {
+						select.getElementsByTag("option").removeAttr("selected");
+					}
+					el.attr("selected", "selected");
+				}
+			} else if ("a".equals(tag) && el.hasAttr("href")) {
+				String href = el.absUrl("href");
+				if (href.startsWith("http:") || href.startsWith("https:") || href.startsWith("file:")) {
+					get(href);
+				}
+			}
+		}
+
+		@Override
+		public void submit() {
+			live();
+		}
+
+		@Override
+		public void sendKeys(CharSequence... keysToSend) {
+			Element el = live();
+			activeElement = el;
+			StringBuilder value = new StringBuilder(value(el));
+			for (CharSequence keys : keysToSend) {
+				for (int i = 0; i < keys.length(); i++) {
+					char c = keys.charAt(i);
+					if (c == Keys.BACK_SPACE.charAt(0)) {
+						if (value.length() > 0) {
+							value.setLength(value.length() - 1);
+						}
+					} else if (c < '\uE000' || c > '\uF8FF') {
+						value.append(c);
+					}
+				}
+			}
+			setValue(el, value.toString());
+		}
+
+		@Override
+		public void clear() {
+			setValue(live(), "");
+		}
+
+		@Override
+		public String getTagName() {
+			return live().normalName();
+		}
+
+		@Override
+		public String getAttribute(String name) {
+			Element el = live();
+			String lower = name.toLowerCase(Locale.ROOT);
+			switch (lower) {
+			case "value":
+				return value(el);
+			case "checked":
+			case "selected":
+				return isSelected() ? "true" : null;
+			case "disabled":
+			case "readonly":
+			case "multiple":
+			case "required":
+			case "hidden":
+				return el.hasAttr(lower) ? "true" : null;
+			case "class":
+			case "classname":
+				return el.hasAttr("class") ? el.attr("class") : null;
+			case "innertext":
+			case "textcontent":
+				return el.text();
+			case "innerhtml":
+				return el.html();
+			case "outerhtml":
+				return el.outerHtml();
+			default:
+				return el.hasAttr(name) ? el.attr(name) : null;
+			}
+		}
+
+		@Override
+		public boolean isSelected() {
+			Element el = live();
+			return "option".equals(el.normalName()) ? el.hasAttr("selected") : el.hasAttr("checked");
+		}
+
+		@Override
+		public boolean isEnabled() {
+			Element el = live();
+			for (Element e = el; e != null; e = e.parent()) {
+				if (e.hasAttr("disabled") && (e == el || "fieldset".equals(e.normalName())
+						|| "select".equals(e.normalName()) || "optgroup".equals(e.normalName()))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public String getText() {
+			Element el = live();
+			return isDisplayed() ? el.text() : "";
+		}
+
+		@Override
+		public List<WebElement> findElements(By by) {
+			live();
+			return by.findElements(this);
+		}
+
+		@Override
+		public WebElement findElement(By by) {
+			live();
+			return by.findElement(this);
+		}
+
+		@Override
+		public boolean isDisplayed() {
+			Element el = live();
+			if ("input".equals(el.normalName()) && "hidden".equalsIgnoreCase(el.attr("type"))) {
+				return false;
+			}
+			for (Element e = el; e != null; e = e.parent()) {
+				String style = e.attr("style").replaceAll("\\s", "").toLowerCase(Locale.ROOT);
+				if (e.hasAttr("hidden") || e.hasClass("ng-hide") || style.contains("display:none")
+						|| style.contains("visibility:hidden") || "head".equals(e.normalName())) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public Point getLocation() {
+			live();
+			return new Point(0, 0);
+		}
+
+		@Override
+		public Dimension getSize() {
+			live();
+			return new Dimension(0, 0);
+		}
+
+		@Override
+		public Rectangle getRect() {
+			return new Rectangle(getLocation(), getSize());
+		}
+
+		@Override
+		public String getCssValue(String propertyName) {
+			for (String declaration : live().attr("style").split(";")) {
+				int colon = declaration.indexOf(':');
+				if (colon > 0 && declaration.substring(0, colon).trim().equalsIgnoreCase(propertyName)) {
+					return declaration.substring(colon + 1).trim();
+				}
+			}
+			return "";
+		}
+
+		@Override
+		public <X> X getScreenshotAs(OutputType<X> target) {
+			throw new UnsupportedCommandException("DomDriver has no rendering");
+		}
+
+		@Override
+		public WebElement findElementById(String using) {
+			return first(findElementsById(using), "id", using);
+		}
+
+		@Override
+		public List<WebElement> findElementsById(String using) {
+			return wrap(descendants(live().getElementsByAttributeValue("id", using)));
+		}
+
+		@Override
+		public WebElement findElementByClassName(String using) {
+			return first(findElementsByClassName(using), "class name", using);
+		}
+
+		@Override
+		public List<WebElement> findElementsByClassName(String using) {
+			return wrap(descendants(live().getElementsByClass(using)));
+		}
+
+		@Override
+		public WebElement findElementByXPath(String using) {
+			return first(findElementsByXPath(using), "xpath", using);
+		}
+
+		@Override
+		public List<WebElement> findElementsByXPath(String using) {
+			return wrap(xpath(live(), using));
+		}
+
+		@Override
+		public WebElement findElementByCssSelector(String using) {
+			return first(findElementsByCssSelector(using), "css selector", using);
+		}
+
+		@Override
+		public List<WebElement> findElementsByCssSelector(String using) {
+			return wrap(css(live(), using));
+		}
+
+		@Override
+		public WebElement findElementByName(String using) {
+			return first(findElementsByName(using), "name", using);
+		}
+
+		@Override
+		public List<WebElement> findElementsByName(String using) {
+			return wrap(descendants(live().getElementsByAttributeValue("name", using)));
+		}
+
+		@Override
+		public WebElement findElementByTagName(String using) {
+			return first(findElementsByTagName(using), "tag name", using);
+		}
+
+		@Override
+		public List<WebElement> findElementsByTagName(String using) {
+			return wrap(descendants(live().getElementsByTag(using)));
+		}
+
+		@Override
+		public WebElement findElementByLinkText(String using) {
+			return first(findElementsByLinkText(using), "link text", using);
+		}
+
+		@Override
+		public List<WebElement> findElementsByLinkText(String using) {
+			return wrap(descendants(links(live(), using, false)));
+		}
+
+		@Override
+		public WebElement findElementByPartialLinkText(String using) {
+			return first(findElementsByPartialLinkText(using), "partial link text", using);
+		}
+
+		@Override
+		public List<WebElement> findElementsByPartialLinkText(String using) {
+			return wrap(descendants(links(live(), using, true)));
+		}
+
+		/**
+		 * jsoup element queries include the element itself, WebDriver
+		 * searches only below it.
+		 */
+		private Elements descendants(Elements found) {
+			found.remove(element);
+			return found;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof DomElement && ((DomElement) o).element == element;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(element);
+		}
+
+		@Override
+		public String toString() {
+			return "DomElement[" + element.cssSelector() + "]";
+		}
+	}
+
+	private static Element form(Element element) {
+		return element.closest("form");
+	}
+
+	private static void setBoolean(Element element, String attribute, boolean value) {
+		if (value) {
+			element.attr(attribute, attribute);
+		} else {
+			element.removeAttr(attribute);
+		}
+	}
+
+	private static String value(Element element) {
+		switch (element.normalName()) {
+		case "textarea":
+			return element.wholeText();
+		case "option":
+			return element.hasAttr("value") ? element.attr("value") : element.text();
+		case "select":
+			Element selected = element.selectFirst("option[selected]");
+			if (selected == null) {
+				selected = element.selectFirst("option");
+			}
+			return selected == null ? "" : value(selected);
+		default:
+			return element.attr("value");
+		}
+	}
+
+	private static void setValue(Element element, String value) {
+		if ("textarea".equals(element.normalName())) {
+			element.text(value);
+		} else {
+			element.attr("value", value);
+		}
+	}
+
+	private final class DomTargetLocator implements TargetLocator {
+
+		@Override
+		public WebDriver frame(int index) {
+			throw new UnsupportedCommandException("DomDriver doesn't support frames");
+		}
+
+		@Override
+		public WebDriver frame(String nameOrId) {
+			throw new UnsupportedCommandException("DomDriver doesn't support frames");
+		}
+
+		@Override
+		public WebDriver frame(WebElement frameElement) {
+			throw new UnsupportedCommandException("DomDriver doesn't support frames");
+		}
+
+		@Override
+		public WebDriver parentFrame() {
+			return DomDriver.this;
+		}
+
+		@Override
+		public WebDriver window(String nameOrHandle) {
+			if (!WINDOW_HANDLE.equals(nameOrHandle)) {
+				throw new NoSuchWindowException(nameOrHandle);
+			}
+			return DomDriver.this;
+		}
+
+		@Override
+		public WebDriver defaultContent() {
+			return DomDriver.this;
+		}
+
+		@Override
+		public WebElement activeElement() {
+			return new DomElement(activeElement != null && activeElement.ownerDocument() == document ? activeElement
+					: document.body());
+		}
+
+		@Override
+		public Alert alert() {
+			throw new NoAlertPresentException();
+		}
+	}
+
+	private final class DomNavigation implements Navigation {
+
+		@Override
+		public void back() {
+			if (historyIndex > 0) {
+				show(history.get(--historyIndex));
+			}
+		}
+
+		@Override
+		public void forward() {
+			if (historyIndex < history.size() - 1) {
+				show(history.get(++historyIndex));
+			}
+		}
+
+		@Override
+		public void to(String url) {
+			get(url);
+		}
+
+		@Override
+		public void to(URL url) {
+			get(url.toString());
+		}
+
+		@Override
+		public void refresh() {
+			if (historyIndex >= 0) {
+				show(history.get(historyIndex));
+			}
+		}
+	}
+
+	private final class DomOptions implements Options {
+
+		@Override
+		public void addCookie(Cookie cookie) {
+			cookies.put(cookie.getName(), cookie);
+		}
+
+		@Override
+		public void deleteCookieNamed(String name) {
+			cookies.remove(name);
+		}
+
+		@Override
+		public void deleteCookie(Cookie cookie) {
+			cookies.remove(cookie.getName());
+		}
+
+		@Override
+		public void deleteAllCookies() {
+			cookies.clear();
+		}
+
+		@Override
+		public Set<Cookie> getCookies() {
+			return new HashSet<Cookie>(cookies.values());
+		}
+
+		@Override
+		public Cookie getCookieNamed(String name) {
+			return cookies.get(name);
+		}
+
+		/**
+		 * DOM is static, so timeouts are accepted and ignored.
+		 */
+		@Override
+		public Timeouts timeouts() {
+			return new Timeouts() {
+				@Override
+				public Timeouts implicitlyWait(long time, TimeUnit unit) {
+					return this;
+				}
+
+				@Override
+				public Timeouts setScriptTimeout(long time, TimeUnit unit) {
+					return this;
+				}
+
+				@Override
+				public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
+					return this;
+				}
+			};
+		}
+
+		@Override
+		public ImeHandler ime() {
+			throw new UnsupportedCommandException("DomDriver has no input method support");
+		}
+
+		@Override
+		public Window window() {
+			return new Window() {
+				@Override
+				public void setSize(Dimension targetSize) {
+					windowSize = targetSize;
+				}
+
+				@Override
+				public void setPosition(Point targetPosition) {
+					windowPosition = targetPosition;
+				}
+
+				@Override
+				public Dimension getSize() {
+					return windowSize;
+				}
+
+				@Override
+				public Point getPosition() {
+					return windowPosition;
+				}
+
+				@Override
+				public void maximize() {
+				}
+
+				@Override
+				public void fullscreen() {
+				}
+			};
+		}
+
+		@Override
+		public Logs logs() {
+			throw new UnsupportedCommandException("DomDriver has no logs");
+		}
+	}
+}
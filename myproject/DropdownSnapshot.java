@@ -0,0 +1,128 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.NoSuchElementException;
+
+/**
+ * Immutable snapshot of all options of a select element: text, value,
+ * selected and disabled state read in single script call.
+ *
+ * @see WebElementsUtil#getDropdownSnapshot(LocatorType, String)
+ */
+public final class DropdownSnapshot {
+
+	/**
+	 * option of a select element.
+	 */
+	public static final class Option {
+		private final String text;
+		private final String value;
+		private final boolean selected;
+		private final boolean disabled;
+
+		public Option(String text, String value, boolean selected, boolean disabled) {
+			this.text = text;
+			this.value = value;
+			this.selected = selected;
+			this.disabled = disabled;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		public boolean isSelected() {
+			return selected;
+		}
+
+		public boolean isDisabled() {
+			return disabled;
+		}
+
+		@Override
+		public String toString() {
+			return text + "=" + value + (selected ? " [selected]" : "") + (disabled ? " [disabled]" : "");
+		}
+	}
+
+	public static final DropdownSnapshot EMPTY = new DropdownSnapshot(Collections.<Option> emptyList());
+
+	private final List<Option> options;
+
+	public DropdownSnapshot(List<Option> options) {
+		this.options = Collections.unmodifiableList(new ArrayList<Option>(options));
+	}
+
+	/**
+	 * build snapshot from script result, list of [text, value, selected,
+	 * disabled] rows.
+	 *
+	 * @param rows
+	 * @return
+	 */
+	static DropdownSnapshot fromScriptResult(List<?> rows) {
+		List<Option> options = new ArrayList<Option>(rows.size());
+		for (Object row : rows) {
+			List<?> cells = (List<?>) row;
+			options.add(new Option(String.valueOf(cells.get(0)).trim(), String.valueOf(cells.get(1)),
+					Boolean.TRUE.equals(cells.get(2)), Boolean.TRUE.equals(cells.get(3))));
+		}
+		return new DropdownSnapshot(options);
+	}
+
+	public List<Option> getOptions() {
+		return options;
+	}
+
+	/**
+	 * @return trimmed text of all options.
+	 */
+	public List<String> getTexts() {
+		return options.stream().map(Option::getText).collect(Collectors.toList());
+	}
+
+	/**
+	 * @return value attribute of all options.
+	 */
+	public List<String> getValues() {
+		return options.stream().map(Option::getValue).collect(Collectors.toList());
+	}
+
+	public List<Option> getSelected() {
+		return options.stream().filter(Option::isSelected).collect(Collectors.toList());
+	}
+
+	/**
+	 * @return text of all selected options.
+	 */
+	public List<String> getSelectedTexts() {
+		return options.stream().filter(Option::isSelected).map(Option::getText).collect(Collectors.toList());
+	}
+
+	/**
+	 * @return first selected option.
+	 * @throws NoSuchElementException
+	 *             if no option is selected.
+	 */
+	public Option getFirstSelected() {
+		return options.stream().filter(Option::isSelected).findFirst()
+				.orElseThrow(() -> new NoSuchElementException("No options are selected"));
+	}
+
+	public int size() {
+		return options.size();
+	}
+
+	@Override
+	public String toString() {
+		return options.toString();
+	}
+}
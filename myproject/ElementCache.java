@@ -0,0 +1,132 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Cache of located elements of one driver keyed by {@link Locator}, used by
+ * {@link WebElementsUtil} when enabled with
+ * {@link WebElementsUtil#setElementCache(boolean)}.
+ *
+ * Every cached element is stored with DOM generation token of page it was
+ * located on. A lookup sends cached element and token to page in one script
+ * which returns the element if page has not changed, or re-resolves the
+ * locator in page otherwise, so a lookup always costs exactly one command.
+ * Entries of previous pages are dropped when page changes.
+ *
+ */
+final class ElementCache {
+
+	static final int MAX_ENTRIES = 1024;
+
+	private final WebElementsUtil util;
+	private final ConcurrentMap<Locator, Entry> entries = new ConcurrentHashMap<Locator, Entry>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private volatile String page;
+
+	private static final class Entry {
+		private final WebElement element;
+		private final String page;
+		private final Long generation;
+
+		private Entry(WebElement element, String page, Long generation) {
+			this.element = element;
+			this.page = page;
+			this.generation = generation;
+		}
+	}
+
+	ElementCache(WebElementsUtil util) {
+		this.util = util;
+	}
+
+	/**
+	 * return cached element if page has not changed since it was located,
+	 * otherwise element located in page now.
+	 *
+	 * @param locator
+	 * @return element or null if locator matches nothing right now.
+	 */
+	WebElement find(Locator locator) {
+		Entry entry = entries.get(locator);
+		List<?> result;
+		try {
+			result = lookup(entry, locator);
+		} catch (StaleElementReferenceException e) {
+			entries.remove(locator, entry);
+			entry = null;
+			result = lookup(null, locator);
+		}
+		String currentPage = (String) result.get(2);
+		Long generation = ((Number) result.get(3)).longValue();
+		if (!currentPage.equals(page)) {
+			entries.clear();
+			page = currentPage;
+		}
+		if (Boolean.TRUE.equals(result.get(0)) && entry != null) {
+			hits.increment();
+			return entry.element;
+		}
+		misses.increment();
+		WebElement element = (WebElement) result.get(1);
+		if (element == null) {
+			entries.remove(locator);
+		} else {
+			store(locator, element, currentPage, generation);
+		}
+		return element;
+	}
+
+	/**
+	 * cache element located outside of {@link #find(Locator)}, e.g. after a
+	 * wait. It is stored with last seen token, so it is re-resolved on next
+	 * lookup if page changed meanwhile.
+	 *
+	 * @param locator
+	 * @param element
+	 */
+	void put(Locator locator, WebElement element) {
+		Entry previous = entries.get(locator);
+		if (previous != null) {
+			store(locator, element, previous.page, previous.generation);
+		} else if (page != null) {
+			store(locator, element, page, null);
+		}
+	}
+
+	void clear() {
+		entries.clear();
+		page = null;
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	long getHits() {
+		return hits.sum();
+	}
+
+	long getMisses() {
+		return misses.sum();
+	}
+
+	private List<?> lookup(Entry entry, Locator locator) {
+		return (List<?>) util.runScript(JsScripts.CACHED_FIND, entry == null ? null : entry.element,
+				entry == null ? null : entry.page, entry == null ? null : entry.generation,
+				locator.getType().name(), locator.getValue());
+	}
+
+	private void store(Locator locator, WebElement element, String page, Long generation) {
+		if (entries.size() >= MAX_ENTRIES && !entries.containsKey(locator)) {
+			entries.clear();
+		}
+		entries.put(locator, new Entry(element, page, generation));
+	}
+}
@@ -0,0 +1,270 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * What an element looked like when a locator last resolved to it: tag, id,
+ * name, classes, start of visible text, a few stable attributes and a CSS
+ * path from nearest ancestor with an id. Used by {@link LocatorHealer} to
+ * derive alternative locators when the original one stops matching.
+ *
+ */
+public final class ElementFingerprint {
+
+	/**
+	 * attributes recorded besides id, name and class.
+	 */
+	static final List<String> ATTRIBUTES = Collections.unmodifiableList(Arrays.asList("type", "placeholder",
+			"aria-label", "title", "data-test", "data-qa", "ng-model", "href"));
+
+	private static final int MAX_TEXT = 80;
+
+	private final String tag;
+	private final String id;
+	private final String name;
+	private final List<String> classes;
+	private final String text;
+	private final String path;
+	private final Map<String, String> attributes;
+
+	ElementFingerprint(String tag, String id, String name, String classNames, String text, String path,
+			Map<String, String> attributes) {
+		this.tag = nullToEmpty(tag).toLowerCase();
+		this.id = nullToEmpty(id);
+		this.name = nullToEmpty(name);
+		this.classes = splitClasses(classNames);
+		String t = nullToEmpty(text).trim();
+		this.text = t.length() > MAX_TEXT ? t.substring(0, MAX_TEXT) : t;
+		this.path = nullToEmpty(path);
+		this.attributes = Collections.unmodifiableMap(new LinkedHashMap<String, String>(attributes));
+	}
+
+	/**
+	 * @param result
+	 *            [tag, id, name, class, text, path, [attribute values]] as
+	 *            returned by {@link JsScripts#READ_FINGERPRINT}.
+	 * @return
+	 */
+	static ElementFingerprint fromScriptResult(List<?> result) {
+		List<?> values = (List<?>) result.get(6);
+		Map<String, String> attributes = new LinkedHashMap<String, String>();
+		for (int i = 0; i < ATTRIBUTES.size() && i < values.size(); i++) {
+			if (values.get(i) != null && !values.get(i).toString().isEmpty()) {
+				attributes.put(ATTRIBUTES.get(i), values.get(i).toString());
+			}
+		}
+		return new ElementFingerprint(string(result.get(0)), string(result.get(1)), string(result.get(2)),
+				string(result.get(3)), string(result.get(4)), string(result.get(5)), attributes);
+	}
+
+	/**
+	 * read fingerprint stored by {@link #store(Properties, String)}.
+	 *
+	 * @return fingerprint or null if none is stored under prefix.
+	 */
+	static ElementFingerprint load(Properties properties, String prefix) {
+		String tag = properties.getProperty(prefix + ".tag");
+		if (tag == null) {
+			return null;
+		}
+		Map<String, String> attributes = new LinkedHashMap<String, String>();
+		for (String attribute : ATTRIBUTES) {
+			String value = properties.getProperty(prefix + ".attr." + attribute);
+			if (value != null) {
+				attributes.put(attribute, value);
+			}
+		}
+		return new ElementFingerprint(tag, properties.getProperty(prefix + ".id"),
+				properties.getProperty(prefix + ".name"), properties.getProperty(prefix + ".class"),
+				properties.getProperty(prefix + ".text"), properties.getProperty(prefix + ".path"), attributes);
+	}
+
+	void store(Properties properties, String prefix) {
+		properties.setProperty(prefix + ".tag", tag);
+		properties.setProperty(prefix + ".id", id);
+		properties.setProperty(prefix + ".name", name);
+		properties.setProperty(prefix + ".class", String.join(" ", classes));
+		properties.setProperty(prefix + ".text", text);
+		properties.setProperty(prefix + ".path", path);
+		for (String attribute : ATTRIBUTES) {
+			properties.remove(prefix + ".attr." + attribute);
+		}
+		for (Map.Entry<String, String> e : attributes.entrySet()) {
+			properties.setProperty(prefix + ".attr." + e.getKey(), e.getValue());
+		}
+	}
+
+	/**
+	 * alternative locators for this element, most specific first: id, name,
+	 * stable attributes, tag with classes, text and CSS path.
+	 *
+	 * @param original
+	 *            locator which no longer matches, left out of result.
+	 * @return
+	 */
+	List<Locator> candidates(Locator original) {
+		List<Locator> candidates = new ArrayList<Locator>();
+		if (!id.isEmpty()) {
+			add(candidates, original, Locator.id(id));
+		}
+		if (!name.isEmpty()) {
+			add(candidates, original, Locator.of(LocatorType.NAME, name));
+		}
+		for (Map.Entry<String, String> e : attributes.entrySet()) {
+			add(candidates, original, Locator.css(tag + "[" + e.getKey() + "=" + cssString(e.getValue()) + "]"));
+		}
+		StringBuilder css = new StringBuilder(tag);
+		for (String c : classes) {
+			if (!c.startsWith("ng-")) {
+				css.append('.').append(cssIdentifier(c));
+			}
+		}
+		if (css.length() > tag.length()) {
+			add(candidates, original, Locator.css(css.toString()));
+		}
+		if (text.length() >= MAX_TEXT) {
+			add(candidates, original,
+					Locator.xpath("//" + tag + "[starts-with(normalize-space(), " + xpathString(text) + ")]"));
+		} else if (!text.isEmpty()) {
+			add(candidates, original, Locator.xpath("//" + tag + "[normalize-space()=" + xpathString(text) + "]"));
+		}
+		if (!path.isEmpty()) {
+			add(candidates, original, Locator.css(path));
+		}
+		return candidates;
+	}
+
+	/**
+	 * @param actual
+	 *            fingerprint of element an alternative locator matched.
+	 * @return true if actual has the same tag and matches a strict majority of
+	 *         id, name, classes, text, path and attributes recorded here.
+	 */
+	boolean matches(ElementFingerprint actual) {
+		if (!tag.equals(actual.tag)) {
+			return false;
+		}
+		int recorded = 0;
+		int matched = 0;
+		if (!id.isEmpty()) {
+			recorded++;
+			matched += id.equals(actual.id) ? 1 : 0;
+		}
+		if (!name.isEmpty()) {
+			recorded++;
+			matched += name.equals(actual.name) ? 1 : 0;
+		}
+		if (!classes.isEmpty()) {
+			recorded++;
+			matched += stableClasses(classes).equals(stableClasses(actual.classes)) ? 1 : 0;
+		}
+		if (!text.isEmpty()) {
+			recorded++;
+			matched += (text.length() >= MAX_TEXT ? actual.text.startsWith(text) : text.equals(actual.text)) ? 1 : 0;
+		}
+		if (!path.isEmpty()) {
+			recorded++;
+			matched += path.equals(actual.path) ? 1 : 0;
+		}
+		for (Map.Entry<String, String> e : attributes.entrySet()) {
+			recorded++;
+			matched += e.getValue().equals(actual.attributes.get(e.getKey())) ? 1 : 0;
+		}
+		return matched * 2 > recorded;
+	}
+
+	/**
+	 * @return classes without angular's state classes like ng-dirty.
+	 */
+	private static Set<String> stableClasses(List<String> classes) {
+		Set<String> stable = new HashSet<String>();
+		for (String c : classes) {
+			if (!c.startsWith("ng-")) {
+				stable.add(c);
+			}
+		}
+		return stable;
+	}
+
+	private static void add(List<Locator> candidates, Locator original, Locator candidate) {
+		if (!candidate.equals(original) && !candidates.contains(candidate)) {
+			candidates.add(candidate);
+		}
+	}
+
+	public String getTag() {
+		return tag;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<String> getClasses() {
+		return classes;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public Map<String, String> getAttributes() {
+		return attributes;
+	}
+
+	@Override
+	public String toString() {
+		return "<" + tag + (id.isEmpty() ? "" : " id=" + id) + (name.isEmpty() ? "" : " name=" + name)
+				+ (classes.isEmpty() ? "" : " class=" + String.join(" ", classes)) + ">" + text;
+	}
+
+	private static List<String> splitClasses(String classNames) {
+		String trimmed = nullToEmpty(classNames).trim();
+		if (trimmed.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(Arrays.asList(trimmed.split("\\s+")));
+	}
+
+	private static String cssString(String value) {
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	private static String cssIdentifier(String value) {
+		return value.replaceAll("([^\\w-])", "\\\\$1");
+	}
+
+	private static String xpathString(String value) {
+		if (!value.contains("'")) {
+			return "'" + value + "'";
+		}
+		if (!value.contains("\"")) {
+			return "\"" + value + "\"";
+		}
+		return "concat('" + value.replace("'", "', \"'\", '") + "')";
+	}
+
+	private static String string(Object value) {
+		return value == null ? "" : value.toString();
+	}
+
+	private static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+}
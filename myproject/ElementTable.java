@@ -0,0 +1,85 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabular result of bulk property read, one row per web element and one
+ * column per requested property.
+ *
+ * @see WebElementsUtil#readProperties(List, List)
+ */
+public final class ElementTable {
+
+	/**
+	 * pseudo property for visible text of element, same as
+	 * {@link org.openqa.selenium.WebElement#getText()}.
+	 */
+	public static final String TEXT = "text";
+
+	private final List<String> columns;
+	private final List<List<String>> rows;
+
+	public ElementTable(List<String> columns, List<List<String>> rows) {
+		this.columns = Collections.unmodifiableList(new ArrayList<String>(columns));
+		this.rows = Collections.unmodifiableList(rows);
+	}
+
+	public List<String> getColumns() {
+		return columns;
+	}
+
+	public List<List<String>> getRows() {
+		return rows;
+	}
+
+	public List<String> getRow(int index) {
+		return rows.get(index);
+	}
+
+	/**
+	 * @param column
+	 *            property name.
+	 * @return values of given property for all elements.
+	 * @throws IllegalArgumentException
+	 *             if property was not read.
+	 */
+	public List<String> getColumn(String column) {
+		int index = columns.indexOf(column);
+		if (index < 0) {
+			throw new IllegalArgumentException("Column " + column + " not in " + columns);
+		}
+		List<String> values = new ArrayList<String>(rows.size());
+		for (List<String> row : rows) {
+			values.add(row.get(index));
+		}
+		return values;
+	}
+
+	/**
+	 * @return rows as property name to value maps.
+	 */
+	public List<Map<String, String>> asMaps() {
+		List<Map<String, String>> maps = new ArrayList<Map<String, String>>(rows.size());
+		for (List<String> row : rows) {
+			Map<String, String> map = new LinkedHashMap<String, String>();
+			for (int i = 0; i < columns.size(); i++) {
+				map.put(columns.get(i), row.get(i));
+			}
+			maps.add(map);
+		}
+		return maps;
+	}
+
+	public int size() {
+		return rows.size();
+	}
+
+	@Override
+	public String toString() {
+		return columns + " " + rows;
+	}
+}
@@ -0,0 +1,239 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of form operations flushed with as few driver calls as possible.
+ * Consecutive fill/select/check operations are applied in page by single
+ * script call, firing input, change and blur events so angular bindings see
+ * the new values. Operations queued with {@link #fillNative(LocatorType, String, String)}
+ * use real key strokes and are run in queue order.
+ *
+ * Fields which are not yet in DOM when batch is flushed fall back to
+ * {@link WebElementsUtil} native methods, which wait for the field, before
+ * operations queued after them are applied.
+ *
+ * <pre>
+ * util.formBatch().fillById("firstName", "John").fillById("lastName", "Doe")
+ * 		.selectByText(LocatorType.ID, "country", "India").check(LocatorType.ID, "terms", true).flush();
+ * </pre>
+ *
+ * @see WebElementsUtil#formBatch()
+ */
+public final class FormBatch {
+
+	private static final Logger LOG = LoggerFactory.getLogger(FormBatch.class);
+
+	private static final String FILL = "fill";
+	private static final String SELECT_TEXT = "selectText";
+	private static final String SELECT_VALUE = "selectValue";
+	private static final String CHECK = "check";
+	private static final String NATIVE_FILL = "nativeFill";
+	/**
+	 * styled &lt;ins&gt; sibling clicked by checkbox helpers of
+	 * {@link WebElementsUtil}, e.g. {@link WebElementsUtil#clickCheckBoxById(String)}.
+	 */
+	private static final Locator STYLED_SIBLING = Locator.xpath("following-sibling::*[1][self::ins]");
+
+	private static final class Operation {
+		private final Locator locator;
+		private final String action;
+		private final String argument;
+
+		private Operation(Locator locator, String action, String argument) {
+			this.locator = locator;
+			this.action = action;
+			this.argument = argument;
+		}
+
+		private List<String> toScriptArgument() {
+			List<String> arg = new ArrayList<String>(4);
+			arg.add(locator.getType().name());
+			arg.add(locator.getValue());
+			arg.add(action);
+			arg.add(argument);
+			return arg;
+		}
+
+		@Override
+		public String toString() {
+			return action + " " + locator;
+		}
+	}
+
+	private final WebElementsUtil util;
+	private final List<Operation> operations = new ArrayList<Operation>();
+
+	FormBatch(WebElementsUtil util) {
+		this.util = util;
+	}
+
+	/**
+	 * clear the field and set its value.
+	 *
+	 * @param type
+	 * @param locatorValue
+	 * @param text
+	 * @return this batch.
+	 */
+	public FormBatch fill(LocatorType type, String locatorValue, String text) {
+		return add(Locator.of(type, locatorValue), FILL, text);
+	}
+
+	public FormBatch fill(Locator locator, String text) {
+		return add(locator, FILL, text);
+	}
+
+	public FormBatch fillById(String id, String text) {
+		return add(Locator.id(id), FILL, text);
+	}
+
+	/**
+	 * clear the field and type text with real key strokes, for fields that
+	 * need key events.
+	 *
+	 * @param type
+	 * @param locatorValue
+	 * @param text
+	 * @return this batch.
+	 */
+	public FormBatch fillNative(LocatorType type, String locatorValue, String text) {
+		return add(Locator.of(type, locatorValue), NATIVE_FILL, text);
+	}
+
+	/**
+	 * select dropdown option by visible text.
+	 *
+	 * @param type
+	 * @param locatorValue
+	 * @param text
+	 * @return this batch.
+	 */
+	public FormBatch selectByText(LocatorType type, String locatorValue, String text) {
+		return add(Locator.of(type, locatorValue), SELECT_TEXT, text);
+	}
+
+	/**
+	 * select dropdown option by value attribute.
+	 *
+	 * @param type
+	 * @param locatorValue
+	 * @param value
+	 * @return this batch.
+	 */
+	public FormBatch selectByValue(LocatorType type, String locatorValue, String value) {
+		return add(Locator.of(type, locatorValue), SELECT_VALUE, value);
+	}
+
+	/**
+	 * check or uncheck checkbox/radio input, input is clicked only if its state
+	 * differs.
+	 *
+	 * @param type
+	 * @param locatorValue
+	 * @param checked
+	 * @return this batch.
+	 */
+	public FormBatch check(LocatorType type, String locatorValue, boolean checked) {
+		return add(Locator.of(type, locatorValue), CHECK, String.valueOf(checked));
+	}
+
+	/**
+	 * @return number of queued operations.
+	 */
+	public int size() {
+		return operations.size();
+	}
+
+	/**
+	 * run all queued operations in order and clear the queue.
+	 *
+	 * @throws NoSuchElementException
+	 *             if dropdown has no matching option.
+	 */
+	@SuppressWarnings("try")
+	public void flush() {
+		List<Operation> segment = new ArrayList<Operation>();
+		try (OperationMetrics.Sample sample = OperationMetrics.start("formBatch", null)) {
+			util.awaitAppIdleIfEnabled();
+			for (Operation op : operations) {
+				if (NATIVE_FILL.equals(op.action) || !util.supportsScripts()) {
+					flushInPage(segment);
+					runNative(op);
+				} else {
+					segment.add(op);
+				}
+			}
+			flushInPage(segment);
+		} finally {
+			operations.clear();
+		}
+	}
+
+	private FormBatch add(Locator locator, String action, String argument) {
+		operations.add(new Operation(locator, action, argument));
+		return this;
+	}
+
+	/**
+	 * apply segment in page. Script stops at first missing field, which is
+	 * then run natively before the rest of the segment is sent again, so
+	 * fields are filled in queue order.
+	 */
+	private void flushInPage(List<Operation> segment) {
+		int from = 0;
+		while (from < segment.size()) {
+			List<List<String>> args = new ArrayList<List<String>>(segment.size() - from);
+			for (Operation op : segment.subList(from, segment.size())) {
+				args.add(op.toScriptArgument());
+			}
+			List<?> status = (List<?>) util.runScript(JsScripts.FILL_FORM, args);
+			for (Object s : status) {
+				Operation op = segment.get(from++);
+				String result = String.valueOf(s);
+				if ("missing".equals(result)) {
+					LOG.debug("{} not in DOM, falling back to native", op);
+					runNative(op);
+				} else if ("nooption".equals(result)) {
+					throw new NoSuchElementException("Cannot locate option for " + op + " with " + op.argument);
+				}
+			}
+		}
+		segment.clear();
+	}
+
+	private void runNative(Operation op) {
+		LocatorType type = op.locator.getType();
+		String value = op.locator.getValue();
+		switch (op.action) {
+		case SELECT_TEXT:
+			util.selectDropDownByText(type, value, op.argument);
+			break;
+		case SELECT_VALUE:
+			util.selectDropDownByValue(type, value, op.argument);
+			break;
+		case CHECK:
+			WebElement input = util.getElement(op.locator);
+			if (input.isSelected() != Boolean.parseBoolean(op.argument)) {
+				WebElement target;
+				try {
+					target = util.getElement(input, STYLED_SIBLING);
+				} catch (NoSuchElementException e) {
+					target = input;
+				}
+				OperationMetrics.command();
+				target.click();
+			}
+			break;
+		default:
+			util.sendKeys(type, value, op.argument);
+			break;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+/**
+ * How {@link WebElementsUtil} waits for angular/display:none elements to be
+ * hidden.
+ *
+ */
+public enum HideWaitMode {
+	/**
+	 * MutationObserver injected in page, wait resolves as soon as element is
+	 * hidden and timeout is enforced by browser. Falls back to {@link #POLL}
+	 * when driver can't run async scripts.
+	 */
+	OBSERVER,
+	/**
+	 * read the attribute from test side at fixed poll interval.
+	 */
+	POLL
+}
@@ -0,0 +1,41 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+/**
+ * Implicit wait override which restores previous implicit wait when closed.
+ * Scopes can be nested, no timeout command is sent to driver when implicit
+ * wait is already at requested value. Previous wait is the one set with
+ * {@link WebElementsUtil#setImplicitWait(int)}, or find timeout of timeout
+ * profile if none was set. With an
+ * {@link TimeoutProfile#isExplicitWaitsOnly() explicit waits only} profile it
+ * is 0, so no wait scopes cost no command once implicit wait is off.
+ *
+ * <pre>
+ * try (ImplicitWaitScope scope = util.noImplicitWait()) {
+ * 	List&lt;WebElement&gt; rows = util.getElementsNoChecks(LocatorType.CSSSELECTOR, ".row");
+ * }
+ * </pre>
+ *
+ * @see WebElementsUtil#implicitWait(int)
+ */
+public final class ImplicitWaitScope implements AutoCloseable {
+
+	private final WebElementsUtil util;
+	private final int previousWaitSec;
+	private boolean closed;
+
+	ImplicitWaitScope(WebElementsUtil util, int previousWaitSec) {
+		this.util = util;
+		this.previousWaitSec = previousWaitSec;
+	}
+
+	/**
+	 * restore implicit wait in effect when scope was opened.
+	 */
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			util.setImplicitWait(previousWaitSec);
+		}
+	}
+}
@@ -0,0 +1,581 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+/**
+ * Javascript sources executed in page by {@link WebElementsUtil}. Scripts take
+ * their input through <code>arguments[]</code> and never get built by string
+ * concatenation.
+ *
+ */
+final class JsScripts {
+
+	private JsScripts() {
+	}
+
+	/**
+	 * function <code>weuFindAll(type, value, root)</code> returning array of
+	 * elements matching {@link LocatorType} name and locator value under root
+	 * (document when null), in document order. Prepended to scripts which
+	 * locate elements in page.
+	 */
+	static final String FIND_FUNCTIONS = ""
+			+ "function weuFindAll(type, value, root) {"
+			+ "  root = root || document;"
+			+ "  var doc = root.ownerDocument || root, found;"
+			+ "  switch (type) {"
+			+ "  case 'CLASSNAME': found = root.getElementsByClassName(value); break;"
+			+ "  case 'XPATH':"
+			+ "    var snapshot = doc.evaluate(value, root, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+			+ "    found = [];"
+			+ "    for (var i = 0; i < snapshot.snapshotLength; i++) found.push(snapshot.snapshotItem(i));"
+			+ "    break;"
+			+ "  case 'CSSSELECTOR': found = root.querySelectorAll(value); break;"
+			+ "  case 'NAME': found = root.querySelectorAll('[name=' + JSON.stringify(value) + ']'); break;"
+			+ "  case 'TAGNAME': found = root.getElementsByTagName(value); break;"
+			+ "  case 'LINKTEXT':"
+			+ "  case 'PARTIALLINKTEXT':"
+			+ "    found = Array.prototype.filter.call(root.getElementsByTagName('a'), function(a) {"
+			+ "      var t = (a.innerText || a.textContent || '').trim();"
+			+ "      return type === 'LINKTEXT' ? t === value : t.indexOf(value) >= 0;"
+			+ "    });"
+			+ "    break;"
+			+ "  default: found = root.querySelectorAll('[id=' + JSON.stringify(value) + ']');"
+			+ "  }"
+			+ "  return Array.prototype.slice.call(found);"
+			+ "}"
+			+ "function weuFind(type, value, root) {"
+			+ "  var found = weuFindAll(type, value, root);"
+			+ "  return found.length ? found[0] : null;"
+			+ "}";
+
+	/**
+	 * async script, resolves with true as soon as element is hidden or removed
+	 * from DOM, false on timeout. Element is hidden when its class attribute
+	 * contains 'ng-hide' (mode 'class') or its style attribute contains
+	 * 'display:none' (mode 'style').
+	 * <p>
+	 * arguments: element, mode, timeout in ms, callback.
+	 */
+	static final String WAIT_FOR_HIDDEN = ""
+			+ "var el = arguments[0], mode = arguments[1], timeoutMs = arguments[2];"
+			+ "var done = arguments[arguments.length - 1];"
+			+ "var attr = mode === 'class' ? 'class' : 'style';"
+			+ "function hidden() {"
+			+ "  if (!document.documentElement.contains(el)) return true;"
+			+ "  var v = el.getAttribute(attr) || '';"
+			+ "  return mode === 'class' ? v.indexOf('ng-hide') >= 0"
+			+ "      : v.replace(/\\s/g, '').indexOf('display:none') >= 0;"
+			+ "}"
+			+ "if (hidden()) { done(true); return; }"
+			+ "var timer, observer = new MutationObserver(function() { if (hidden()) finish(true); });"
+			+ "function finish(result) { observer.disconnect(); clearTimeout(timer); done(result); }"
+			+ "observer.observe(document.documentElement,"
+			+ "    { subtree: true, childList: true, attributes: true, attributeFilter: [attr] });"
+			+ "timer = setTimeout(function() { finish(hidden()); }, timeoutMs);";
+
+	/**
+	 * async script, resolves with true once angular is stable and no XHR/fetch
+	 * request is pending for quiet period, false on timeout. XHR and fetch are
+	 * hooked into <code>window.__weuNet</code> on first call.
+	 * <p>
+	 * arguments: timeout in ms, quiet period in ms, callback.
+	 */
+	static final String WAIT_FOR_APP_IDLE = ""
+			+ "var timeoutMs = arguments[0], quietMs = arguments[1];"
+			+ "var callback = arguments[arguments.length - 1];"
+			+ "var w = window, quietSince = null, finished = false;"
+			+ "function done(result) { if (!finished) { finished = true; callback(result); } }"
+			+ "if (!w.__weuNet) {"
+			+ "  var net = w.__weuNet = { pending: 0 };"
+			+ "  if (w.XMLHttpRequest) {"
+			+ "    var send = w.XMLHttpRequest.prototype.send;"
+			+ "    w.XMLHttpRequest.prototype.send = function() {"
+			+ "      var ended = false;"
+			+ "      function end() { if (!ended) { ended = true; net.pending--; } }"
+			+ "      net.pending++;"
+			+ "      this.addEventListener('loadend', end);"
+			+ "      try { return send.apply(this, arguments); } catch (e) { end(); throw e; }"
+			+ "    };"
+			+ "  }"
+			+ "  if (w.fetch) {"
+			+ "    var fetch = w.fetch;"
+			+ "    w.fetch = function() {"
+			+ "      net.pending++;"
+			+ "      var p;"
+			+ "      try { p = fetch.apply(this, arguments); } catch (e) { net.pending--; throw e; }"
+			+ "      return p.then(function(r) { net.pending--; return r; },"
+			+ "          function(e) { net.pending--; throw e; });"
+			+ "    };"
+			+ "  }"
+			+ "}"
+			+ "function ngRoot() {"
+			+ "  return document.querySelector('[ng-app],[data-ng-app],.ng-scope') || document.body;"
+			+ "}"
+			+ "function whenNgStable(next) {"
+			+ "  try {"
+			+ "    if (w.angular && w.angular.getTestability) {"
+			+ "      w.angular.getTestability(ngRoot()).whenStable(next);"
+			+ "      return;"
+			+ "    }"
+			+ "  } catch (e) {}"
+			+ "  next();"
+			+ "}"
+			+ "function httpPending() {"
+			+ "  try {"
+			+ "    var injector = w.angular && w.angular.element(ngRoot()).injector();"
+			+ "    return injector ? injector.get('$http').pendingRequests.length : 0;"
+			+ "  } catch (e) { return 0; }"
+			+ "}"
+			+ "function poll() {"
+			+ "  if (finished) return;"
+			+ "  whenNgStable(function() {"
+			+ "    var now = Date.now();"
+			+ "    if (w.__weuNet.pending > 0 || httpPending() > 0) {"
+			+ "      quietSince = null;"
+			+ "    } else {"
+			+ "      if (quietSince === null) quietSince = now;"
+			+ "      if (now - quietSince >= quietMs) { done(true); return; }"
+			+ "    }"
+			+ "    setTimeout(poll, 25);"
+			+ "  });"
+			+ "}"
+			+ "setTimeout(function() { done(false); }, timeoutMs);"
+			+ "poll();";
+
+	/**
+	 * return [text, value, selected, disabled] of every option of a select
+	 * element.
+	 * <p>
+	 * arguments: select element.
+	 */
+	static final String READ_SELECT_OPTIONS = ""
+			+ "var options = arguments[0].options, rows = [];"
+			+ "for (var i = 0; i < options.length; i++) {"
+			+ "  var o = options[i];"
+			+ "  rows.push([o.text, o.value, o.selected, o.disabled]);"
+			+ "}"
+			+ "return rows;";
+
+	/**
+	 * function <code>prop(el, name)</code> reading a property of an element:
+	 * 'text' is visible text like WebElement.getText(), any other name is read
+	 * like WebElement.getAttribute(): DOM property first, then attribute.
+	 */
+	static final String PROPERTY_FUNCTIONS = ""
+			+ "function text(el) {"
+			+ "  if (!el.getClientRects().length) return '';"
+			+ "  var t = el.innerText !== undefined ? el.innerText : el.textContent;"
+			+ "  return (t || '').trim();"
+			+ "}"
+			+ "function prop(el, name) {"
+			+ "  if (name === 'text') return text(el);"
+			+ "  var v = el[name];"
+			+ "  if (v !== undefined && v !== null && typeof v !== 'object' && typeof v !== 'function') return String(v);"
+			+ "  return el.getAttribute(name);"
+			+ "}";
+
+	/**
+	 * return one row per element with value of every requested property, read
+	 * like {@link #PROPERTY_FUNCTIONS}.
+	 * <p>
+	 * arguments: elements, property names.
+	 */
+	static final String READ_ELEMENT_PROPERTIES = PROPERTY_FUNCTIONS
+			+ "var elements = arguments[0], names = arguments[1], rows = [];"
+			+ "for (var i = 0; i < elements.length; i++) {"
+			+ "  var row = [];"
+			+ "  for (var j = 0; j < names.length; j++) row.push(prop(elements[i], names[j]));"
+			+ "  rows.push(row);"
+			+ "}"
+			+ "return rows;";
+
+	/**
+	 * apply form operations in page and return status of each: 'ok',
+	 * 'missing' when element is not found or 'nooption' when select has no
+	 * matching option. Stops after first missing element, so caller can run
+	 * it natively before the rest. Values are set through native value setter
+	 * and input, change and blur events are dispatched so angular bindings are
+	 * updated. Checkboxes are toggled through their styled &lt;ins&gt; sibling
+	 * when they have one.
+	 * <p>
+	 * arguments: operations as [locator type, locator value, action, argument]
+	 * with action one of 'fill', 'selectText', 'selectValue', 'check'.
+	 */
+	static final String FILL_FORM = FIND_FUNCTIONS
+			+ "var ops = arguments[0], status = [];"
+			+ "function fire(el, name) {"
+			+ "  var e = document.createEvent('HTMLEvents');"
+			+ "  e.initEvent(name, true, true);"
+			+ "  el.dispatchEvent(e);"
+			+ "}"
+			+ "function setValue(el, value) {"
+			+ "  var proto = Object.getPrototypeOf(el);"
+			+ "  var desc = Object.getOwnPropertyDescriptor(proto, 'value');"
+			+ "  if (desc && desc.set) desc.set.call(el, value); else el.value = value;"
+			+ "}"
+			+ "function select(el, arg, byText) {"
+			+ "  for (var i = 0; i < el.options.length; i++) {"
+			+ "    var o = el.options[i];"
+			+ "    if (byText ? o.text.trim() === arg : o.value === arg) {"
+			+ "      o.selected = true;"
+			+ "      fire(el, 'change');"
+			+ "      return 'ok';"
+			+ "    }"
+			+ "  }"
+			+ "  return 'nooption';"
+			+ "}"
+			+ "for (var i = 0; i < ops.length; i++) {"
+			+ "  var op = ops[i], el = weuFind(op[0], op[1]), action = op[2], arg = op[3];"
+			+ "  if (!el) { status.push('missing'); break; }"
+			+ "  if (action === 'fill') {"
+			+ "    if (el.focus) el.focus();"
+			+ "    setValue(el, arg);"
+			+ "    fire(el, 'input');"
+			+ "    fire(el, 'change');"
+			+ "    fire(el, 'blur');"
+			+ "    status.push('ok');"
+			+ "  } else if (action === 'selectText' || action === 'selectValue') {"
+			+ "    status.push(select(el, arg, action === 'selectText'));"
+			+ "  } else if (action === 'check') {"
+			+ "    var styled = el.nextElementSibling;"
+			+ "    if (el.checked !== (arg === 'true')) (styled && styled.tagName === 'INS' ? styled : el).click();"
+			+ "    status.push('ok');"
+			+ "  } else {"
+			+ "    status.push('unsupported');"
+			+ "  }"
+			+ "}"
+			+ "return status;";
+
+	/**
+	 * check a cached element against DOM generation of page and re-resolve it
+	 * in the same call when the page changed. Generation is a counter bumped
+	 * by a childList MutationObserver installed into
+	 * <code>window.__weuDom</code> on first call, page is a random document id
+	 * plus URL so reloads of same URL are told apart. Returns [hit, element,
+	 * page, generation], element is null when locator matches nothing.
+	 * <p>
+	 * arguments: cached element or null, its page, its generation, locator
+	 * type, locator value.
+	 */
+	static final String CACHED_FIND = FIND_FUNCTIONS
+			+ "var el = arguments[0], page = arguments[1], gen = arguments[2];"
+			+ "var w = window, dom = w.__weuDom;"
+			+ "if (!dom || dom.doc !== document) {"
+			+ "  dom = w.__weuDom = { doc: document, id: Math.random().toString(36).slice(2), gen: 0 };"
+			+ "  new MutationObserver(function() { dom.gen++; })"
+			+ "      .observe(document.documentElement, { childList: true, subtree: true });"
+			+ "}"
+			+ "var currentPage = dom.id + ' ' + location.href;"
+			+ "if (el && page === currentPage && gen === dom.gen && document.documentElement.contains(el)) {"
+			+ "  return [true, el, currentPage, dom.gen];"
+			+ "}"
+			+ "return [false, weuFind(arguments[3], arguments[4]), currentPage, dom.gen];";
+
+	/**
+	 * return [index, element] of first locator matching an element, in order
+	 * of locators, or null when none matches.
+	 * <p>
+	 * arguments: locators as [locator type, locator value].
+	 */
+	static final String FIND_FIRST = FIND_FUNCTIONS
+			+ "var locators = arguments[0];"
+			+ "for (var i = 0; i < locators.length; i++) {"
+			+ "  var el = weuFind(locators[i][0], locators[i][1]);"
+			+ "  if (el) return [i, el];"
+			+ "}"
+			+ "return null;";
+
+	/**
+	 * return [tag, id, name, class, text, path, [attribute values]] of an
+	 * element. Path is a CSS child path of nth-of-type steps from nearest
+	 * ancestor with an id, or from html.
+	 * <p>
+	 * arguments: element, attribute names.
+	 */
+	static final String READ_FINGERPRINT = ""
+			+ "var el = arguments[0], names = arguments[1];"
+			+ "function esc(id) {"
+			+ "  return window.CSS && CSS.escape ? CSS.escape(id) : id.replace(/([^\\w-])/g, '\\\\$1');"
+			+ "}"
+			+ "function path(node) {"
+			+ "  var steps = [];"
+			+ "  while (node && node.nodeType === 1) {"
+			+ "    if (node.id) { steps.unshift('#' + esc(node.id)); break; }"
+			+ "    var tag = node.tagName.toLowerCase(), n = 1;"
+			+ "    for (var s = node.previousElementSibling; s; s = s.previousElementSibling) {"
+			+ "      if (s.tagName === node.tagName) n++;"
+			+ "    }"
+			+ "    steps.unshift(tag + ':nth-of-type(' + n + ')');"
+			+ "    node = node.parentElement;"
+			+ "  }"
+			+ "  return steps.join(' > ');"
+			+ "}"
+			+ "var attrs = [];"
+			+ "for (var i = 0; i < names.length; i++) attrs.push(el.getAttribute(names[i]));"
+			+ "var text = el.innerText !== undefined ? el.innerText : el.textContent;"
+			+ "return [el.tagName, el.id, el.getAttribute('name'), el.getAttribute('class'),"
+			+ "    (text || '').replace(/\\s+/g, ' ').trim(), path(el), attrs];";
+
+	/**
+	 * return [index, element] of first locator matching exactly one element,
+	 * in order of locators, or null when none does. The first locators, up to
+	 * given count, win with their first match like findElement.
+	 * <p>
+	 * arguments: locators as [locator type, locator value], optional number
+	 * of leading locators which may match several elements.
+	 */
+	static final String FIND_FIRST_UNIQUE = FIND_FUNCTIONS
+			+ "var locators = arguments[0], anyCount = arguments[1] || 0;"
+			+ "for (var i = 0; i < locators.length; i++) {"
+			+ "  try {"
+			+ "    var found = weuFindAll(locators[i][0], locators[i][1]);"
+			+ "    if (found.length === 1 || (i < anyCount && found.length)) return [i, found[0]];"
+			+ "  } catch (e) {}"
+			+ "}"
+			+ "return null;";
+
+	/**
+	 * async script, resolves with true once locator has matched nothing for
+	 * stable period, false on timeout. Presence is re-checked on every DOM
+	 * mutation, so an element flashing in and out resets the period.
+	 * <p>
+	 * arguments: locator type, locator value, stable period in ms, timeout in
+	 * ms, callback.
+	 */
+	static final String WAIT_FOR_ABSENT = FIND_FUNCTIONS
+			+ "var type = arguments[0], value = arguments[1], stableMs = arguments[2], timeoutMs = arguments[3];"
+			+ "var done = arguments[arguments.length - 1];"
+			+ "var absentSince = null, finished = false, observer, interval, timer;"
+			+ "function finish(result) {"
+			+ "  if (finished) return;"
+			+ "  finished = true;"
+			+ "  observer.disconnect(); clearInterval(interval); clearTimeout(timer);"
+			+ "  done(result);"
+			+ "}"
+			+ "function check() {"
+			+ "  var now = Date.now();"
+			+ "  if (weuFind(type, value)) { absentSince = null; return; }"
+			+ "  if (absentSince === null) absentSince = now;"
+			+ "  if (now - absentSince >= stableMs) finish(true);"
+			+ "}"
+			+ "observer = new MutationObserver(check);"
+			+ "observer.observe(document.documentElement, { subtree: true, childList: true, attributes: true });"
+			+ "interval = setInterval(check, Math.max(10, Math.min(50, stableMs)));"
+			+ "timer = setTimeout(function() { finish(false); }, timeoutMs);"
+			+ "check();";
+
+	/**
+	 * clear localStorage and sessionStorage of current origin, storage which
+	 * is not accessible (e.g. on about:blank) is skipped.
+	 */
+	static final String CLEAR_STORAGE = ""
+			+ "try { window.localStorage.clear(); } catch (e) {}"
+			+ "try { window.sessionStorage.clear(); } catch (e) {}";
+
+	/**
+	 * async script, locates element and waits until it is actionable:
+	 * displayed, enabled and, after scrolling it to the middle of viewport,
+	 * not covered by another element at its center. Retries every 50 ms until
+	 * timeout. Resolves with [status, element]: status is 'ok', 'missing',
+	 * 'hidden', 'disabled', 'obscured by &lt;element&gt;' or 'error:
+	 * &lt;message&gt;', element is set when status is 'ok'. Caller clicks the
+	 * element natively, so the click gets trusted events.
+	 * <p>
+	 * arguments: locator type, locator value, timeout in ms, callback.
+	 */
+	static final String ACTIONABLE_ELEMENT = FIND_FUNCTIONS
+			+ "var type = arguments[0], value = arguments[1], timeoutMs = arguments[2];"
+			+ "var done = arguments[arguments.length - 1], start = Date.now();"
+			+ "function describe(node) {"
+			+ "  var d = node.tagName.toLowerCase() + (node.id ? '#' + node.id : '');"
+			+ "  var cls = typeof node.className === 'string' ? node.className.trim() : '';"
+			+ "  return cls ? d + '.' + cls.split(/\\s+/).join('.') : d;"
+			+ "}"
+			+ "var found = null;"
+			+ "function attempt() {"
+			+ "  var el = weuFind(type, value);"
+			+ "  if (!el) return 'missing';"
+			+ "  var style = window.getComputedStyle(el);"
+			+ "  if (style.display === 'none' || style.visibility === 'hidden' || !el.getClientRects().length) {"
+			+ "    return 'hidden';"
+			+ "  }"
+			+ "  if (el.disabled || (el.closest && el.closest('fieldset[disabled]'))) return 'disabled';"
+			+ "  el.scrollIntoView({ block: 'center', inline: 'center' });"
+			+ "  var r = el.getBoundingClientRect();"
+			+ "  if (!r.width || !r.height) return 'hidden';"
+			+ "  var hit = document.elementFromPoint(r.left + r.width / 2, r.top + r.height / 2);"
+			+ "  if (hit && hit !== el && !el.contains(hit) && hit.control !== el) {"
+			+ "    return 'obscured by ' + describe(hit);"
+			+ "  }"
+			+ "  found = el;"
+			+ "  return 'ok';"
+			+ "}"
+			+ "function poll() {"
+			+ "  var status;"
+			+ "  try { status = attempt(); } catch (e) { status = 'error: ' + e.message; }"
+			+ "  if (status === 'ok' || status.indexOf('error') === 0 || Date.now() - start >= timeoutMs) {"
+			+ "    done([status, status === 'ok' ? found : null]);"
+			+ "    return;"
+			+ "  }"
+			+ "  setTimeout(poll, 50);"
+			+ "}"
+			+ "poll();";
+
+	/**
+	 * install helper functions into <code>window.__weu</code> once per
+	 * document, see {@link ScriptRegistry}. Helpers find elements with
+	 * {@link #FIND_FUNCTIONS}, use jQuery and mCustomScrollbar when page has
+	 * them and plain DOM otherwise. CSS selectors go through jQuery when page
+	 * has it, so jQuery extensions like <code>:visible</code> or
+	 * <code>:contains()</code> keep working.
+	 * <p>
+	 * arguments: registry version.
+	 */
+	static final String INSTALL_HELPERS = FIND_FUNCTIONS
+			+ "function helperFindAll(type, value) {"
+			+ "  var $ = window.jQuery;"
+			+ "  return type === 'CSSSELECTOR' && $ ? $(value).get() : weuFindAll(type, value);"
+			+ "}"
+			+ "function helperFind(type, value) {"
+			+ "  var found = helperFindAll(type, value);"
+			+ "  return found.length ? found[0] : null;"
+			+ "}"
+			+ "window.__weu = {"
+			+ "  version: arguments[0],"
+			+ "  click: function(type, value, all) {"
+			+ "    var els = all ? helperFindAll(type, value) : [helperFind(type, value)].filter(Boolean);"
+			+ "    var $ = window.jQuery;"
+			+ "    for (var i = 0; i < els.length; i++) {"
+			+ "      if ($) $(els[i]).click(); else els[i].click();"
+			+ "    }"
+			+ "    return els.length;"
+			+ "  },"
+			+ "  scrollTop: function(type, value, px) {"
+			+ "    var el = helperFind(type, value);"
+			+ "    if (!el) return false;"
+			+ "    el.scrollTop = px;"
+			+ "    return true;"
+			+ "  },"
+			+ "  scrollContainerTo: function(type, value, target) {"
+			+ "    var container = helperFind(type, value);"
+			+ "    if (!container) return false;"
+			+ "    var el = typeof target === 'number' ? null : helperFind(target[0], target[1]);"
+			+ "    if (typeof target !== 'number' && !el) return false;"
+			+ "    var $ = window.jQuery;"
+			+ "    if ($ && $.fn && $.fn.mCustomScrollbar) {"
+			+ "      try {"
+			+ "        $(container).mCustomScrollbar('scrollTo', el ? $(el) : target);"
+			+ "        return true;"
+			+ "      } catch (e) {}"
+			+ "    }"
+			+ "    if (el) {"
+			+ "      container.scrollTop += el.getBoundingClientRect().top - container.getBoundingClientRect().top;"
+			+ "    } else {"
+			+ "      container.scrollTop = target;"
+			+ "    }"
+			+ "    return true;"
+			+ "  }"
+			+ "};";
+
+	/**
+	 * call a helper installed by {@link #INSTALL_HELPERS}, returns [result] or
+	 * [{@link ScriptRegistry#MISSING}] when helpers of this version are not
+	 * installed in current document.
+	 * <p>
+	 * arguments: registry version, helper name, helper arguments.
+	 */
+	static final String CALL_HELPER = ""
+			+ "var weu = window.__weu;"
+			+ "if (!weu || weu.version !== arguments[0]) return ['" + ScriptRegistry.MISSING + "'];"
+			+ "return [weu[arguments[1]].apply(weu, arguments[2])];";
+
+	/**
+	 * async script, reads rows of a scrolling list which only renders visible
+	 * rows, e.g. a virtualized list or an mCustomScrollbar container. Scrolls
+	 * container to start position, then repeatedly reads rendered rows and
+	 * scrolls one view down. After each scroll it goes on in a task right
+	 * after the next animation frame, so frame callbacks of the list render
+	 * first, unless the container changed; then it waits until DOM has been
+	 * quiet for settle period. Stops at end of list, after max rows or after
+	 * max time. Resolves with [rows, at end, next position, row keys] where
+	 * rows hold property values as read by {@link #PROPERTY_FUNCTIONS}, or
+	 * null if container is not found. A row re-rendered across scrolls is read
+	 * once: rows are told apart by their first non empty key attribute, else
+	 * by their offset in the list, and only rows without layout by their
+	 * values.
+	 * <p>
+	 * arguments: container locator type, container locator value, row locator
+	 * type, row locator value, property names, start position in px, max rows,
+	 * max time in ms, settle period in ms, key attribute names, callback.
+	 */
+	static final String SCROLL_ROWS = FIND_FUNCTIONS + PROPERTY_FUNCTIONS
+			+ "var ctype = arguments[0], cvalue = arguments[1], rtype = arguments[2], rvalue = arguments[3];"
+			+ "var names = arguments[4], startPx = arguments[5], maxRows = arguments[6], maxMs = arguments[7];"
+			+ "var settleMs = arguments[8], keyNames = arguments[9], done = arguments[arguments.length - 1];"
+			+ "var c = weuFind(ctype, cvalue);"
+			+ "if (!c) { done(null); return; }"
+			+ "var $ = window.jQuery, box = c.querySelector('.mCustomScrollBox'),"
+			+ "    content = c.querySelector('.mCSB_container');"
+			+ "var mcs = !!($ && $.fn && $.fn.mCustomScrollbar && box && content);"
+			+ "function top() { return mcs ? -content.offsetTop : c.scrollTop; }"
+			+ "function view() { return mcs ? box.clientHeight : c.clientHeight; }"
+			+ "function height() { return mcs ? content.offsetHeight : c.scrollHeight; }"
+			+ "function atEnd() { return top() + view() >= height() - 1; }"
+			+ "function scroll(px) {"
+			+ "  if (mcs) $(c).mCustomScrollbar('scrollTo', px, { scrollInertia: 0, timeout: 0 });"
+			+ "  else c.scrollTop = px;"
+			+ "}"
+			+ "var rows = [], keys = [], seen = {}, start = Date.now();"
+			+ "function rowKey(el, row) {"
+			+ "  for (var k = 0; k < keyNames.length; k++) {"
+			+ "    var v = el.getAttribute(keyNames[k]);"
+			+ "    if (v !== null && v !== '') return 'key:' + v;"
+			+ "  }"
+			+ "  if (el.getClientRects().length) {"
+			+ "    var base = (mcs ? content : c).getBoundingClientRect(), r = el.getBoundingClientRect();"
+			+ "    var topPx = r.top - base.top + (mcs ? 0 : c.scrollTop);"
+			+ "    return 'at:' + Math.round(topPx) + ',' + Math.round(r.left - base.left);"
+			+ "  }"
+			+ "  return 'values:' + JSON.stringify(row);"
+			+ "}"
+			+ "function collect() {"
+			+ "  var els = weuFindAll(rtype, rvalue, c);"
+			+ "  for (var i = 0; i < els.length; i++) {"
+			+ "    var row = [];"
+			+ "    for (var j = 0; j < names.length; j++) row.push(prop(els[i], names[j]));"
+			+ "    var key = rowKey(els[i], row);"
+			+ "    if (!seen[key]) { seen[key] = true; rows.push(row); keys.push(key); }"
+			+ "  }"
+			+ "}"
+			+ "function settle(next) {"
+			+ "  var finished = false, timer = null, cap;"
+			+ "  var observer = new MutationObserver(function() {"
+			+ "    clearTimeout(timer);"
+			+ "    timer = setTimeout(finish, settleMs);"
+			+ "  });"
+			+ "  function finish() {"
+			+ "    if (finished) return;"
+			+ "    finished = true;"
+			+ "    observer.disconnect(); clearTimeout(timer); clearTimeout(cap);"
+			+ "    next();"
+			+ "  }"
+			+ "  observer.observe(c, { childList: true, subtree: true, characterData: true });"
+			+ "  requestAnimationFrame(function() {"
+			+ "    setTimeout(function() { if (timer === null) finish(); }, 0);"
+			+ "  });"
+			+ "  cap = setTimeout(finish, Math.max(settleMs * 10, 500));"
+			+ "}"
+			+ "function result(end) { done([rows, end, top() + view(), keys]); }"
+			+ "function step() {"
+			+ "  collect();"
+			+ "  if (atEnd()) { result(true); return; }"
+			+ "  if (rows.length >= maxRows || Date.now() - start >= maxMs) { result(false); return; }"
+			+ "  var before = top();"
+			+ "  scroll(before + Math.max(1, view()));"
+			+ "  settle(function() {"
+			+ "    if (top() <= before) { collect(); result(true); return; }"
+			+ "    step();"
+			+ "  });"
+			+ "}"
+			+ "scroll(startPx);"
+			+ "settle(step);";
+}
@@ -0,0 +1,130 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openqa.selenium.By;
+
+/**
+ * Immutable locator, pair of {@link LocatorType} and locator value with its
+ * {@link By} built once. Page objects can declare locators as constants and
+ * pass them to {@link WebElementsUtil} instead of type/value pairs.
+ *
+ * Instances returned by {@link #of(LocatorType, String)} are interned, the
+ * intern cache is bounded to {@value #MAX_CACHED} locators per type.
+ *
+ */
+public final class Locator {
+
+	private static final int MAX_CACHED = 4096;
+	private static final Map<LocatorType, ConcurrentHashMap<String, Locator>> CACHE = new EnumMap<LocatorType, ConcurrentHashMap<String, Locator>>(
+			LocatorType.class);
+
+	static {
+		for (LocatorType t : LocatorType.values()) {
+			CACHE.put(t, new ConcurrentHashMap<String, Locator>());
+		}
+	}
+
+	private final LocatorType type;
+	private final String value;
+	private final By by;
+
+	private Locator(LocatorType type, String value) {
+		this.type = type;
+		this.value = value;
+		this.by = toBy(type, value);
+	}
+
+	/**
+	 * return interned locator for given type and value.
+	 *
+	 * @param type
+	 * @param value
+	 * @return
+	 */
+	public static Locator of(LocatorType type, String value) {
+		Objects.requireNonNull(type, "locator type");
+		Objects.requireNonNull(value, "locator value");
+		ConcurrentHashMap<String, Locator> cache = CACHE.get(type);
+		Locator locator = cache.get(value);
+		if (locator != null) {
+			return locator;
+		}
+		if (cache.size() >= MAX_CACHED) {
+			return new Locator(type, value);
+		}
+		return cache.computeIfAbsent(value, v -> new Locator(type, v));
+	}
+
+	public static Locator id(String value) {
+		return of(LocatorType.ID, value);
+	}
+
+	public static Locator css(String value) {
+		return of(LocatorType.CSSSELECTOR, value);
+	}
+
+	public static Locator xpath(String value) {
+		return of(LocatorType.XPATH, value);
+	}
+
+	public LocatorType getType() {
+		return type;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	public By by() {
+		return by;
+	}
+
+	private static By toBy(LocatorType t, String locatorValue) {
+		switch (t) {
+		case ID:
+			return By.id(locatorValue);
+		case CLASSNAME:
+			return By.className(locatorValue);
+		case XPATH:
+			return By.xpath(locatorValue);
+		case CSSSELECTOR:
+			return By.cssSelector(locatorValue);
+		case NAME:
+			return By.name(locatorValue);
+		case TAGNAME:
+			return By.tagName(locatorValue);
+		case LINKTEXT:
+			return By.linkText(locatorValue);
+		case PARTIALLINKTEXT:
+			return By.partialLinkText(locatorValue);
+		default:
+			return By.id(locatorValue);
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof Locator)) {
+			return false;
+		}
+		Locator other = (Locator) o;
+		return type == other.type && value.equals(other.value);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * type.hashCode() + value.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return type.get() + ": " + value;
+	}
+}
@@ -0,0 +1,251 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Self-healing of locators backed by a properties file. Whenever a locator
+ * resolves, {@link ElementFingerprint} of its element is recorded (once per
+ * locator per JVM). When a locator stops matching, alternative locators
+ * derived from its fingerprint are tried in page, most specific first, within
+ * {@link #getBudgetMs()}; an alternative is only accepted if it matches
+ * exactly one element whose fingerprint still matches the recorded one, so
+ * a generic alternative can't heal to another element of a half rendered
+ * page. Healing starts after half of the lookup's wait has been spent on the
+ * original locator and the app is idle, alternatives are tried together with
+ * the original locator, and the rest of the wait is spent on the original
+ * locator if none matched. Every heal is logged at warn level and counted in
+ * the store, so broken locators can be fixed in page objects.
+ *
+ * A healed locator is remembered for the rest of the run: next lookups try
+ * original and healed locator in the same probe instead of timing out again.
+ *
+ * <pre>
+ * LocatorHealer healer = LocatorHealer.fromSystemProperty();
+ * WebElementsUtil.getInstance(driver).setLocatorHealer(healer);
+ * ...
+ * healer.save();
+ * </pre>
+ *
+ */
+public class LocatorHealer {
+
+	private static final Logger LOG = LoggerFactory.getLogger(LocatorHealer.class);
+
+	public static final String STORE_PROPERTY = "webelements.heal.store";
+	public static final String DEFAULT_STORE = "target/locator-fingerprints.properties";
+	public static final long DEFAULT_BUDGET_MS = 3000;
+
+	private final Path store;
+	private final Properties properties = new Properties();
+	private final Set<Locator> recorded = ConcurrentHashMap.newKeySet();
+	private final ConcurrentMap<Locator, Locator> healed = new ConcurrentHashMap<Locator, Locator>();
+	private volatile long budgetMs = DEFAULT_BUDGET_MS;
+	private volatile boolean dirty;
+
+	/**
+	 * @param store
+	 *            properties file, loaded if it exists.
+	 */
+	public LocatorHealer(Path store) {
+		this.store = store;
+		if (Files.exists(store)) {
+			try (InputStream in = Files.newInputStream(store)) {
+				properties.load(in);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Couldn't load locator store " + store, e);
+			}
+		}
+	}
+
+	/**
+	 * @return healer with store given by system property
+	 *         {@value #STORE_PROPERTY}, {@value #DEFAULT_STORE} by default.
+	 */
+	public static LocatorHealer fromSystemProperty() {
+		return new LocatorHealer(Paths.get(System.getProperty(STORE_PROPERTY, DEFAULT_STORE)));
+	}
+
+	public long getBudgetMs() {
+		return budgetMs;
+	}
+
+	/**
+	 * @param budgetMs
+	 *            max time spent trying alternatives for one lookup.
+	 */
+	public void setBudgetMs(long budgetMs) {
+		this.budgetMs = budgetMs;
+	}
+
+	/**
+	 * @return locator healing given locator in this run, null if it was not
+	 *         healed.
+	 */
+	public Locator getHealedLocator(Locator locator) {
+		return healed.get(locator);
+	}
+
+	/**
+	 * @return stored fingerprint of element locator last resolved to, null if
+	 *         none.
+	 */
+	public ElementFingerprint getFingerprint(Locator locator) {
+		synchronized (properties) {
+			return ElementFingerprint.load(properties, key(locator));
+		}
+	}
+
+	/**
+	 * record fingerprint of element locator resolved to, once per locator.
+	 * Recording failures are logged and ignored.
+	 *
+	 * @param util
+	 * @param locator
+	 * @param element
+	 */
+	void resolved(WebElementsUtil util, Locator locator, WebElement element) {
+		healed.remove(locator);
+		if (!util.supportsScripts() || !recorded.add(locator)) {
+			return;
+		}
+		try {
+			List<?> result = (List<?>) util.runScript(JsScripts.READ_FINGERPRINT, element,
+					ElementFingerprint.ATTRIBUTES);
+			ElementFingerprint fingerprint = ElementFingerprint.fromScriptResult(result);
+			synchronized (properties) {
+				fingerprint.store(properties, key(locator));
+			}
+			dirty = true;
+		} catch (WebDriverException e) {
+			recorded.remove(locator);
+			LOG.debug("couldn't record fingerprint of {}", locator, e);
+		}
+	}
+
+	/**
+	 * @return true if locator has a fingerprint to heal it from.
+	 */
+	boolean canHeal(WebElementsUtil util, Locator locator) {
+		return util.supportsScripts() && getFingerprint(locator) != null;
+	}
+
+	/**
+	 * try a locator which doesn't match right now together with alternatives
+	 * from its fingerprint, original locator first, so a page which is just
+	 * slow isn't healed.
+	 *
+	 * @param util
+	 * @param locator
+	 * @param maxMs
+	 *            max time to wait, budget is used if it is lower.
+	 * @return element matched by original locator or an alternative, null if
+	 *         locator has no fingerprint or nothing matched in time.
+	 */
+	WebElement heal(WebElementsUtil util, Locator locator, long maxMs) {
+		ElementFingerprint fingerprint = getFingerprint(locator);
+		if (fingerprint == null || !util.supportsScripts()) {
+			return null;
+		}
+		List<Locator> candidates = fingerprint.candidates(locator);
+		if (candidates.isEmpty()) {
+			return null;
+		}
+		List<List<String>> arg = new ArrayList<List<String>>(candidates.size() + 1);
+		arg.add(Arrays.asList(locator.getType().name(), locator.getValue()));
+		for (Locator candidate : candidates) {
+			arg.add(Arrays.asList(candidate.getType().name(), candidate.getValue()));
+		}
+		List<?> result;
+		try {
+			result = util.getWaitEngine().untilMillis(
+					d -> (List<?>) util.runScript(JsScripts.FIND_FIRST_UNIQUE, arg, 1), Math.min(budgetMs, maxMs));
+		} catch (TimeoutException e) {
+			LOG.warn("couldn't heal {} ({}), none of {} alternatives matched", locator, fingerprint,
+					candidates.size());
+			return null;
+		}
+		int index = ((Number) result.get(0)).intValue();
+		if (index == 0) {
+			resolved(util, locator, (WebElement) result.get(1));
+			return (WebElement) result.get(1);
+		}
+		Locator winner = candidates.get(index - 1);
+		WebElement element = (WebElement) result.get(1);
+		if (!fingerprintMatches(util, fingerprint, element)) {
+			LOG.warn("not healing {} with {}, its element no longer looks like {}", locator, winner, fingerprint);
+			return null;
+		}
+		healed.put(locator, winner);
+		String key = key(locator);
+		synchronized (properties) {
+			String count = properties.getProperty(key + ".healed", "0");
+			properties.setProperty(key + ".healed", String.valueOf(Long.parseLong(count) + 1));
+			properties.setProperty(key + ".healedTo", key(winner));
+		}
+		dirty = true;
+		LOG.warn("healed {} with {} ({}), update the locator", locator, winner, fingerprint);
+		return element;
+	}
+
+	private static boolean fingerprintMatches(WebElementsUtil util, ElementFingerprint fingerprint,
+			WebElement element) {
+		try {
+			List<?> result = (List<?>) util.runScript(JsScripts.READ_FINGERPRINT, element,
+					ElementFingerprint.ATTRIBUTES);
+			return fingerprint.matches(ElementFingerprint.fromScriptResult(result));
+		} catch (WebDriverException e) {
+			LOG.debug("couldn't re-check fingerprint of {}", fingerprint, e);
+			return false;
+		}
+	}
+
+	/**
+	 * write store if anything was recorded since it was loaded or saved. File
+	 * is replaced atomically.
+	 */
+	public void save() {
+		if (!dirty) {
+			return;
+		}
+		try {
+			Path dir = store.toAbsolutePath().getParent();
+			Files.createDirectories(dir);
+			Path tmp = Files.createTempFile(dir, store.getFileName().toString(), ".tmp");
+			// serialize in memory under the lock, write the file after it
+			ByteArrayOutputStream content = new ByteArrayOutputStream();
+			synchronized (properties) {
+				properties.store(content, "WebElementsUtil locator fingerprints");
+				dirty = false;
+			}
+			Files.write(tmp, content.toByteArray());
+			Files.move(tmp, store, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			dirty = true;
+			throw new UncheckedIOException("Couldn't save locator store " + store, e);
+		}
+	}
+
+	private static String key(Locator locator) {
+		return locator.getType().name() + ":" + locator.getValue();
+	}
+}
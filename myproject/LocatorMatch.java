@@ -0,0 +1,44 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import org.openqa.selenium.WebElement;
+
+/**
+ * Result of {@link WebElementsUtil#findFirst(int, Locator...)}: the first of
+ * several alternative locators that matched and the element it matched.
+ *
+ */
+public final class LocatorMatch {
+
+	private final Locator locator;
+	private final int index;
+	private final WebElement element;
+
+	LocatorMatch(Locator locator, int index, WebElement element) {
+		this.locator = locator;
+		this.index = index;
+		this.element = element;
+	}
+
+	/**
+	 * @return locator which won.
+	 */
+	public Locator getLocator() {
+		return locator;
+	}
+
+	/**
+	 * @return position of winning locator in given locators, starting at 0.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public WebElement getElement() {
+		return element;
+	}
+
+	@Override
+	public String toString() {
+		return "LocatorMatch[" + index + ", " + locator + "]";
+	}
+}
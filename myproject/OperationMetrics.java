@@ -0,0 +1,433 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+
+/**
+ * Timing of WebElementsUtil operations keyed by method and locator: call
+ * latency histogram, time spent waiting, wait probes and driver commands
+ * issued. Recording is disabled unless system property
+ * {@value #ENABLED_PROPERTY} is true or {@link #setEnabled(boolean)} is
+ * called, disabled recording costs one volatile read per operation.
+ *
+ * Operations are recorded with a {@link Sample} opened by
+ * {@link #start(String, Locator)}, or by
+ * {@link #start(String, LocatorType, String)} so no locator is built while
+ * recording is disabled. Nested operations add their waits, probes and
+ * commands to enclosing operation as well.
+ *
+ * <pre>
+ * OperationMetrics.setEnabled(true);
+ * ... run test ...
+ * LOG.info(OperationMetrics.summary(20));
+ * OperationMetrics.reset();
+ * </pre>
+ *
+ * Statistics can be read as {@link OperationSnapshot}s with
+ * {@link #snapshot()} to feed other metric registries, and over JMX after
+ * {@link #registerMBean()}.
+ *
+ */
+public final class OperationMetrics {
+
+	public static final String ENABLED_PROPERTY = "webelements.metrics";
+	public static final String MBEAN_NAME = "com.symantec.cws.automation:type=WebElementsUtil,name=OperationMetrics";
+
+	private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+	private static final ConcurrentMap<Key, Stats> STATS = new ConcurrentHashMap<Key, Stats>();
+	private static final ThreadLocal<Sample> CURRENT = new ThreadLocal<Sample>();
+	private static final Sample NOOP = new Sample(null, null);
+
+	private OperationMetrics() {
+	}
+
+	/**
+	 * recording of one operation, close it when operation ends.
+	 */
+	public static final class Sample implements AutoCloseable {
+		private final Key key;
+		private final Sample parent;
+		private final long startNanos;
+		private long waitNanos;
+		private long polls;
+		private long commands;
+
+		private Sample(Key key, Sample parent) {
+			this.key = key;
+			this.parent = parent;
+			this.startNanos = key == null ? 0 : System.nanoTime();
+		}
+
+		@Override
+		public void close() {
+			if (key == null) {
+				return;
+			}
+			long elapsedNanos = System.nanoTime() - startNanos;
+			Stats stats = STATS.computeIfAbsent(key, k -> new Stats());
+			stats.latency.record(elapsedNanos / 1000);
+			stats.waitMicros.add(waitNanos / 1000);
+			stats.polls.add(polls);
+			stats.commands.add(commands);
+			if (parent != null) {
+				parent.waitNanos += waitNanos;
+				parent.polls += polls;
+				parent.commands += commands;
+			}
+			CURRENT.set(parent);
+		}
+	}
+
+	private static final class Key {
+		private final String method;
+		private final Locator locator;
+
+		private Key(String method, Locator locator) {
+			this.method = method;
+			this.locator = locator;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return method.equals(other.method) && Objects.equals(locator, other.locator);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * method.hashCode() + Objects.hashCode(locator);
+		}
+
+		@Override
+		public String toString() {
+			return locator == null ? method : method + " " + locator;
+		}
+	}
+
+	private static final class Stats {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder waitMicros = new LongAdder();
+		private final LongAdder polls = new LongAdder();
+		private final LongAdder commands = new LongAdder();
+	}
+
+	private static final class MXBean implements OperationMetricsMXBean {
+
+		@Override
+		public boolean isEnabled() {
+			return OperationMetrics.isEnabled();
+		}
+
+		@Override
+		public void setEnabled(boolean enabled) {
+			OperationMetrics.setEnabled(enabled);
+		}
+
+		@Override
+		public Map<String, OperationSnapshot> getOperations() {
+			Map<String, OperationSnapshot> operations = new LinkedHashMap<String, OperationSnapshot>();
+			for (OperationSnapshot s : snapshot()) {
+				operations.put((s.getMethod() + " " + s.getLocator()).trim(), s);
+			}
+			return operations;
+		}
+
+		@Override
+		public String summary(int top) {
+			return OperationMetrics.summary(top);
+		}
+
+		@Override
+		public void reset() {
+			OperationMetrics.reset();
+		}
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled) {
+		OperationMetrics.enabled = enabled;
+	}
+
+	/**
+	 * start recording an operation on current thread.
+	 *
+	 * @param method
+	 *            operation name.
+	 * @param locator
+	 *            locator of operation, may be null.
+	 * @return sample to be closed when operation ends.
+	 */
+	public static Sample start(String method, Locator locator) {
+		if (!enabled) {
+			return NOOP;
+		}
+		Sample sample = new Sample(new Key(method, locator), CURRENT.get());
+		CURRENT.set(sample);
+		return sample;
+	}
+
+	/**
+	 * {@link #start(String, Locator)} building locator only when recording is
+	 * enabled.
+	 *
+	 * @param method
+	 * @param type
+	 * @param value
+	 * @return
+	 */
+	public static Sample start(String method, LocatorType type, String value) {
+		if (!enabled) {
+			return NOOP;
+		}
+		return start(method, type == null ? null : Locator.of(type, value));
+	}
+
+	/**
+	 * wrap element so every call on it, and on elements it returns, counts as
+	 * a driver command of current operation. For code issuing commands the
+	 * util can't see, e.g. {@link org.openqa.selenium.support.ui.Select}.
+	 * Proxy implements all interfaces of element plus {@link WrapsElement}, so
+	 * script arguments, {@code Actions} and equals see the real element.
+	 *
+	 * @param element
+	 * @return element itself when recording is disabled.
+	 */
+	static WebElement counted(WebElement element) {
+		if (!enabled || element == null) {
+			return element;
+		}
+		Set<Class<?>> interfaces = interfaces(element);
+		interfaces.add(WrapsElement.class);
+		try {
+			return (WebElement) Proxy.newProxyInstance(element.getClass().getClassLoader(),
+					interfaces.toArray(new Class<?>[0]), new CountingHandler(element));
+		} catch (IllegalArgumentException e) {
+			return element;
+		}
+	}
+
+	/**
+	 * wrap driver like {@link #counted(WebElement)}, e.g. for conditions of
+	 * {@link WaitEngine}. Proxy implements all interfaces of driver.
+	 *
+	 * @param driver
+	 * @return driver itself when recording is disabled.
+	 */
+	static WebDriver counted(WebDriver driver) {
+		if (!enabled || driver == null) {
+			return driver;
+		}
+		try {
+			return (WebDriver) Proxy.newProxyInstance(driver.getClass().getClassLoader(),
+					interfaces(driver).toArray(new Class<?>[0]), new CountingHandler(driver));
+		} catch (IllegalArgumentException e) {
+			return driver;
+		}
+	}
+
+	/**
+	 * undo {@link #counted(WebElement)} on a value, or on elements of a list,
+	 * so callers never get a counting proxy back.
+	 *
+	 * @param value
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T uncounted(T value) {
+		if (value instanceof List) {
+			List<?> list = (List<?>) value;
+			boolean counted = false;
+			for (Object o : list) {
+				counted |= target(o) != o;
+			}
+			if (!counted) {
+				return value;
+			}
+			List<Object> elements = new ArrayList<Object>(list.size());
+			for (Object o : list) {
+				elements.add(target(o));
+			}
+			return (T) elements;
+		}
+		return (T) target(value);
+	}
+
+	private static Object target(Object value) {
+		if (value != null && Proxy.isProxyClass(value.getClass())) {
+			InvocationHandler handler = Proxy.getInvocationHandler(value);
+			if (handler instanceof CountingHandler) {
+				return ((CountingHandler) handler).target;
+			}
+		}
+		return value;
+	}
+
+	private static Set<Class<?>> interfaces(Object target) {
+		Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+		for (Class<?> c = target.getClass(); c != null; c = c.getSuperclass()) {
+			interfaces.addAll(Arrays.asList(c.getInterfaces()));
+		}
+		return interfaces;
+	}
+
+	private static final class CountingHandler implements InvocationHandler {
+		private final Object target;
+
+		private CountingHandler(Object target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Class<?> declaring = method.getDeclaringClass();
+			if (declaring == WrapsElement.class) {
+				return target;
+			}
+			if (declaring != Object.class && declaring != WrapsDriver.class && declaring != Locatable.class) {
+				command();
+			}
+			Object result;
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (result instanceof WebElement) {
+				return counted((WebElement) result);
+			}
+			if (result instanceof List) {
+				List<Object> elements = new ArrayList<Object>(((List<?>) result).size());
+				for (Object o : (List<?>) result) {
+					elements.add(o instanceof WebElement ? counted((WebElement) o) : o);
+				}
+				return elements;
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * count a driver command for current operation.
+	 */
+	static void command() {
+		if (enabled) {
+			Sample sample = CURRENT.get();
+			if (sample != null) {
+				sample.commands++;
+			}
+		}
+	}
+
+	/**
+	 * add a finished wait to current operation.
+	 *
+	 * @param nanos
+	 *            time spent waiting.
+	 * @param probes
+	 *            number of times wait condition was probed.
+	 */
+	static void waited(long nanos, int probes) {
+		if (enabled) {
+			Sample sample = CURRENT.get();
+			if (sample != null) {
+				sample.waitNanos += nanos;
+				sample.polls += probes;
+			}
+		}
+	}
+
+	/**
+	 * @return statistics of all recorded operations.
+	 */
+	public static List<OperationSnapshot> snapshot() {
+		List<OperationSnapshot> snapshots = new ArrayList<OperationSnapshot>(STATS.size());
+		for (Map.Entry<Key, Stats> e : STATS.entrySet()) {
+			Key key = e.getKey();
+			Stats stats = e.getValue();
+			LatencyHistogram latency = stats.latency;
+			snapshots.add(new OperationSnapshot(key.method, key.locator == null ? "" : key.locator.toString(),
+					latency.getCount(), millis(latency.getTotalMicros()), latency.getMeanMicros() / 1000.0,
+					millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+					millis(latency.getMaxMicros()), millis(stats.waitMicros.sum()), stats.polls.sum(),
+					stats.commands.sum()));
+		}
+		return snapshots;
+	}
+
+	/**
+	 * @param top
+	 *            max number of operations in summary.
+	 * @return table of operations with highest total time.
+	 */
+	public static String summary(int top) {
+		List<OperationSnapshot> snapshots = snapshot();
+		snapshots.sort(Comparator.comparingDouble(OperationSnapshot::getTotalMillis).reversed());
+		StringBuilder sb = new StringBuilder(String.format("%-40s %-50s %8s %10s %9s %9s %9s %10s %7s %8s%n",
+				"method", "locator", "calls", "total ms", "mean ms", "p99 ms", "max ms", "wait ms", "polls",
+				"commands"));
+		for (OperationSnapshot s : snapshots.subList(0, Math.min(top, snapshots.size()))) {
+			sb.append(String.format("%-40s %-50s %8d %10.1f %9.1f %9.1f %9.1f %10.1f %7d %8d%n", s.getMethod(),
+					s.getLocator(), s.getCalls(), s.getTotalMillis(), s.getMeanMillis(), s.getP99Millis(),
+					s.getMaxMillis(), s.getWaitMillis(), s.getPolls(), s.getCommands()));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * clear all statistics, e.g. between tests.
+	 */
+	public static void reset() {
+		STATS.clear();
+	}
+
+	/**
+	 * register {@link OperationMetricsMXBean} as {@value #MBEAN_NAME} on
+	 * platform MBean server, does nothing if already registered.
+	 */
+	public static void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(MBEAN_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(new MXBean(), name);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("Couldn't register " + MBEAN_NAME, e);
+		}
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+}
@@ -0,0 +1,28 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link OperationMetrics}, registered with
+ * {@link OperationMetrics#registerMBean()}.
+ *
+ */
+public interface OperationMetricsMXBean {
+
+	boolean isEnabled();
+
+	void setEnabled(boolean enabled);
+
+	/**
+	 * @return statistics keyed by 'method locator'.
+	 */
+	Map<String, OperationSnapshot> getOperations();
+
+	/**
+	 * @param top
+	 * @return summary of top operations by total time.
+	 */
+	String summary(int top);
+
+	void reset();
+}
@@ -0,0 +1,106 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point in time statistics of one WebElementsUtil operation for one locator.
+ * Times are in milliseconds.
+ *
+ * @see OperationMetrics#snapshot()
+ */
+public final class OperationSnapshot {
+
+	private final String method;
+	private final String locator;
+	private final long calls;
+	private final double totalMillis;
+	private final double meanMillis;
+	private final double p50Millis;
+	private final double p99Millis;
+	private final double maxMillis;
+	private final double waitMillis;
+	private final long polls;
+	private final long commands;
+
+	@ConstructorProperties({ "method", "locator", "calls", "totalMillis", "meanMillis", "p50Millis", "p99Millis",
+			"maxMillis", "waitMillis", "polls", "commands" })
+	public OperationSnapshot(String method, String locator, long calls, double totalMillis, double meanMillis,
+			double p50Millis, double p99Millis, double maxMillis, double waitMillis, long polls, long commands) {
+		this.method = method;
+		this.locator = locator;
+		this.calls = calls;
+		this.totalMillis = totalMillis;
+		this.meanMillis = meanMillis;
+		this.p50Millis = p50Millis;
+		this.p99Millis = p99Millis;
+		this.maxMillis = maxMillis;
+		this.waitMillis = waitMillis;
+		this.polls = polls;
+		this.commands = commands;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return locator as 'type: value', empty for operations without locator.
+	 */
+	public String getLocator() {
+		return locator;
+	}
+
+	public long getCalls() {
+		return calls;
+	}
+
+	public double getTotalMillis() {
+		return totalMillis;
+	}
+
+	public double getMeanMillis() {
+		return meanMillis;
+	}
+
+	public double getP50Millis() {
+		return p50Millis;
+	}
+
+	public double getP99Millis() {
+		return p99Millis;
+	}
+
+	public double getMaxMillis() {
+		return maxMillis;
+	}
+
+	/**
+	 * @return time spent in explicit and in page waits.
+	 */
+	public double getWaitMillis() {
+		return waitMillis;
+	}
+
+	/**
+	 * @return number of wait condition probes, each probe is one or more driver
+	 *         commands.
+	 */
+	public long getPolls() {
+		return polls;
+	}
+
+	/**
+	 * @return number of driver commands issued by WebElementsUtil outside of
+	 *         wait probes, see {@link #getPolls()} for those.
+	 */
+	public long getCommands() {
+		return commands;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s %s calls=%d total=%.1fms mean=%.1fms p50=%.1fms p99=%.1fms max=%.1fms wait=%.1fms polls=%d commands=%d",
+				method, locator, calls, totalMillis, meanMillis, p50Millis, p99Millis, maxMillis, waitMillis, polls,
+				commands);
+	}
+}
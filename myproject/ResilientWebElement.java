@@ -0,0 +1,211 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Coordinates;
+import org.openqa.selenium.interactions.Locatable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * WebElement which remembers how it was located and re-locates itself when
+ * the element it holds goes stale, e.g. after angular re-renders the view.
+ * Re-location first tries a lookup without any wait and only then falls back
+ * to the waiting lookup. Located element is reused until it goes stale.
+ *
+ * Element located through a parent re-locates its parent first if the parent
+ * is also a ResilientWebElement.
+ *
+ * @see WebElementsUtil#getResilientElement(Locator, int)
+ * @see WebElementsUtil#setResilientElements(boolean)
+ */
+public class ResilientWebElement implements WebElement, WrapsElement, Locatable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ResilientWebElement.class);
+
+	private final WebElementsUtil util;
+	private final Locator locator;
+	private final WebElement parent;
+	private final int waitInSec;
+	private volatile WebElement element;
+
+	ResilientWebElement(WebElementsUtil util, Locator locator, WebElement parent, int waitInSec, WebElement element) {
+		this.util = util;
+		this.locator = locator;
+		this.parent = parent;
+		this.waitInSec = waitInSec;
+		this.element = element;
+	}
+
+	public Locator getLocator() {
+		return locator;
+	}
+
+	/**
+	 * @return parent element this element was located from, null when it was
+	 *         located from page.
+	 */
+	public WebElement getParent() {
+		return parent;
+	}
+
+	/**
+	 * @return currently located element, locating it if needed.
+	 */
+	@Override
+	public WebElement getWrappedElement() {
+		WebElement current = element;
+		return current != null ? current : relocate();
+	}
+
+	/**
+	 * drop located element and locate it again.
+	 *
+	 * @return newly located element.
+	 * @throws NoSuchElementException
+	 *             if element is not found within wait.
+	 */
+	public WebElement relocate() {
+		WebElement found = null;
+		try {
+			found = parent == null ? util.getElementNoCheck(locator) : util.getElement(parent, locator);
+		} catch (NoSuchElementException e) {
+			LOG.debug("{} not found without wait, waiting up to {} sec", locator, waitInSec);
+			if (parent == null) {
+				found = util.getElement(locator, waitInSec);
+			} else {
+				found = util.getWaitEngine().until(d -> util.getElement(parent, locator), waitInSec);
+			}
+		}
+		if (found == null) {
+			throw new NoSuchElementException("Couldn't relocate element with " + locator);
+		}
+		if (found instanceof WrapsElement) {
+			found = ((WrapsElement) found).getWrappedElement();
+		}
+		element = found;
+		return found;
+	}
+
+	private <T> T call(Function<WebElement, T> command) {
+		try {
+			return command.apply(getWrappedElement());
+		} catch (StaleElementReferenceException e) {
+			LOG.debug("{} went stale, relocating", locator);
+			return command.apply(relocate());
+		}
+	}
+
+	private void run(Consumer<WebElement> command) {
+		call(e -> {
+			command.accept(e);
+			return null;
+		});
+	}
+
+	@Override
+	public void click() {
+		run(WebElement::click);
+	}
+
+	@Override
+	public void submit() {
+		run(WebElement::submit);
+	}
+
+	@Override
+	public void sendKeys(CharSequence... keysToSend) {
+		run(e -> e.sendKeys(keysToSend));
+	}
+
+	@Override
+	public void clear() {
+		run(WebElement::clear);
+	}
+
+	@Override
+	public String getTagName() {
+		return call(WebElement::getTagName);
+	}
+
+	@Override
+	public String getAttribute(String name) {
+		return call(e -> e.getAttribute(name));
+	}
+
+	@Override
+	public boolean isSelected() {
+		return call(WebElement::isSelected);
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return call(WebElement::isEnabled);
+	}
+
+	@Override
+	public String getText() {
+		return call(WebElement::getText);
+	}
+
+	@Override
+	public List<WebElement> findElements(By by) {
+		return call(e -> e.findElements(by));
+	}
+
+	@Override
+	public WebElement findElement(By by) {
+		return call(e -> e.findElement(by));
+	}
+
+	@Override
+	public boolean isDisplayed() {
+		return call(WebElement::isDisplayed);
+	}
+
+	@Override
+	public Point getLocation() {
+		return call(WebElement::getLocation);
+	}
+
+	@Override
+	public Dimension getSize() {
+		return call(WebElement::getSize);
+	}
+
+	@Override
+	public Rectangle getRect() {
+		return call(WebElement::getRect);
+	}
+
+	@Override
+	public String getCssValue(String propertyName) {
+		return call(e -> e.getCssValue(propertyName));
+	}
+
+	@Override
+	public <X> X getScreenshotAs(OutputType<X> target) {
+		return call(e -> e.getScreenshotAs(target));
+	}
+
+	@Override
+	public Coordinates getCoordinates() {
+		return call(e -> ((Locatable) e).getCoordinates());
+	}
+
+	@Override
+	public String toString() {
+		return "ResilientWebElement[" + (parent == null ? "" : parent + " -> ") + locator + "]";
+	}
+}
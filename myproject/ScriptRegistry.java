@@ -0,0 +1,67 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Page helpers of {@link WebElementsUtil} pinned into the page. Helpers are
+ * defined once in {@link JsScripts#INSTALL_HELPERS} and installed into
+ * <code>window.__weu</code> on first use in a document; later calls send
+ * only the short {@link JsScripts#CALL_HELPER} script with helper name and
+ * arguments, so the browser doesn't parse helper sources on every call. After
+ * navigation the first call finds helpers missing and installs them again,
+ * costing one extra command.
+ *
+ * Selectors and values are passed as script arguments, never concatenated
+ * into script source.
+ *
+ */
+final class ScriptRegistry {
+
+	static final String MISSING = "__weu_missing__";
+
+	/**
+	 * bump when helpers change, so pages holding old helpers reinstall them.
+	 */
+	static final String VERSION = "2";
+
+	private static final String INSTALL_AND_CALL = JsScripts.INSTALL_HELPERS + JsScripts.CALL_HELPER;
+
+	private final WebElementsUtil util;
+	private final LongAdder installs = new LongAdder();
+
+	ScriptRegistry(WebElementsUtil util) {
+		this.util = util;
+	}
+
+	/**
+	 * @param helper
+	 *            name of helper in {@link JsScripts#INSTALL_HELPERS}.
+	 * @param args
+	 * @return value returned by helper.
+	 * @throws WebDriverException
+	 *             if driver can't execute scripts.
+	 */
+	Object call(String helper, Object... args) {
+		if (!util.supportsScripts()) {
+			throw new WebDriverException("Driver can't execute javascript, helper " + helper + " is unavailable");
+		}
+		List<Object> helperArgs = Arrays.asList(args);
+		List<?> result = (List<?>) util.runScript(JsScripts.CALL_HELPER, VERSION, helper, helperArgs);
+		if (result != null && !result.isEmpty() && MISSING.equals(result.get(0))) {
+			installs.increment();
+			result = (List<?>) util.runScript(INSTALL_AND_CALL, VERSION, helper, helperArgs);
+		}
+		return result == null || result.isEmpty() ? null : result.get(0);
+	}
+
+	/**
+	 * @return number of times helpers were installed into a document.
+	 */
+	long getInstallCount() {
+		return installs.sum();
+	}
+}
@@ -0,0 +1,279 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lazy iterator over rows of a list which only renders visible rows, e.g. a
+ * virtualized list or an mCustomScrollbar container. Rows are fetched in
+ * batches: one async script call scrolls the container in page view by view,
+ * reading rendered rows after each scroll, until it has collected
+ * {@link #getBatchRows()} rows or reached end of list. A row is the list of
+ * requested property values of a row element, read like
+ * {@link WebElementsUtil#readProperties(List, List)}.
+ *
+ * Rows re-rendered across scrolls are returned once. A row is identified by
+ * its first non empty {@link #getKeyAttributes() key attribute}, else by its
+ * offset from top of list, so rows with the same values (repeated log lines,
+ * blank placeholders) are all returned; only rows without layout fall back to
+ * their values. Duplicates are detected against the last
+ * {@link #getMaxTrackedRows()} rows only, which bounds memory on long lists;
+ * since the list is scrolled forward only, a row can only reappear close to
+ * where it was seen first.
+ *
+ * Iteration stops fetching as soon as caller stops asking, so
+ * <code>util.streamRows(...).filter(...).findFirst()</code> only scrolls as
+ * far as the match.
+ *
+ */
+public class ScrollingRowIterator implements Iterator<List<String>> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ScrollingRowIterator.class);
+
+	public static final int DEFAULT_BATCH_ROWS = 500;
+	public static final int DEFAULT_MAX_TRACKED_ROWS = 10000;
+	public static final long DEFAULT_BATCH_MS = 5000;
+	public static final long DEFAULT_SETTLE_MS = 50;
+	public static final List<String> DEFAULT_KEY_ATTRIBUTES = Collections.unmodifiableList(
+			Arrays.asList("data-key", "data-id", "data-index", "data-row-index", "aria-rowindex"));
+
+	private final WebElementsUtil util;
+	private final Locator container;
+	private final Locator row;
+	private final List<String> properties;
+	private final Deque<List<String>> buffer = new ArrayDeque<List<String>>();
+	private final Set<String> seen = new LinkedHashSet<String>();
+	private List<String> keyAttributes = DEFAULT_KEY_ATTRIBUTES;
+	private int batchRows = DEFAULT_BATCH_ROWS;
+	private int maxTrackedRows = DEFAULT_MAX_TRACKED_ROWS;
+	private long batchMs = DEFAULT_BATCH_MS;
+	private long settleMs = DEFAULT_SETTLE_MS;
+	private long positionPx;
+	private boolean started;
+	private boolean end;
+	private int batches;
+	private long rows;
+
+	/**
+	 * @param util
+	 * @param container
+	 *            scrolling element, an mCustomScrollbar container or an element
+	 *            with overflow.
+	 * @param row
+	 *            locator of row elements, relative to container.
+	 * @param properties
+	 *            property or attribute names to read from every row,
+	 *            {@link ElementTable#TEXT} for visible text.
+	 */
+	ScrollingRowIterator(WebElementsUtil util, Locator container, Locator row, List<String> properties) {
+		if (properties.isEmpty()) {
+			throw new IllegalArgumentException("No property given");
+		}
+		this.util = util;
+		this.container = container;
+		this.row = row;
+		this.properties = Collections.unmodifiableList(new ArrayList<String>(properties));
+	}
+
+	/**
+	 * @param batchRows
+	 *            max number of rows fetched by one script call.
+	 * @return this
+	 */
+	public ScrollingRowIterator withBatchRows(int batchRows) {
+		if (batchRows < 1) {
+			throw new IllegalArgumentException("batch rows must be positive: " + batchRows);
+		}
+		this.batchRows = batchRows;
+		return this;
+	}
+
+	/**
+	 * @param maxTrackedRows
+	 *            number of last rows remembered to drop duplicates.
+	 * @return this
+	 */
+	public ScrollingRowIterator withMaxTrackedRows(int maxTrackedRows) {
+		if (maxTrackedRows < 1) {
+			throw new IllegalArgumentException("max tracked rows must be positive: " + maxTrackedRows);
+		}
+		this.maxTrackedRows = maxTrackedRows;
+		return this;
+	}
+
+	/**
+	 * @param keyAttributes
+	 *            attributes identifying a row, first non empty one wins.
+	 * @return this
+	 */
+	public ScrollingRowIterator withKeyAttributes(List<String> keyAttributes) {
+		this.keyAttributes = Collections.unmodifiableList(new ArrayList<String>(keyAttributes));
+		return this;
+	}
+
+	/**
+	 * @param batchMs
+	 *            max time one script call spends scrolling.
+	 * @param settleMs
+	 *            time DOM must be quiet after a scroll before rows are read.
+	 * @return this
+	 */
+	public ScrollingRowIterator withTiming(long batchMs, long settleMs) {
+		if (batchMs < 1 || settleMs < 0) {
+			throw new IllegalArgumentException("invalid timing: " + batchMs + "/" + settleMs + " ms");
+		}
+		this.batchMs = batchMs;
+		this.settleMs = settleMs;
+		return this;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (buffer.isEmpty() && !end) {
+			fetch();
+		}
+		return !buffer.isEmpty();
+	}
+
+	@Override
+	public List<String> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("No more rows in " + container);
+		}
+		return buffer.poll();
+	}
+
+	/**
+	 * @return rows left of current batch, fetching next batch first if none is
+	 *         left; empty at end of list.
+	 */
+	public List<List<String>> nextBatch() {
+		hasNext();
+		List<List<String>> batch = new ArrayList<List<String>>(buffer);
+		buffer.clear();
+		return batch;
+	}
+
+	@SuppressWarnings("try")
+	private void fetch() {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("scrollRows", container)) {
+			Map<String, List<String>> fetched = util.supportsScripts() ? fetchInPage() : fetchRendered();
+			batches++;
+			for (Map.Entry<String, List<String>> r : fetched.entrySet()) {
+				if (seen.add(r.getKey())) {
+					buffer.add(r.getValue());
+					rows++;
+					if (seen.size() > maxTrackedRows) {
+						Iterator<String> oldest = seen.iterator();
+						oldest.next();
+						oldest.remove();
+					}
+				}
+			}
+			LOG.debug("batch {} of {}: {} rows, {} new, end {}", batches, container, fetched.size(), buffer.size(),
+					end);
+		}
+	}
+
+	/**
+	 * @return rows by key, in list order.
+	 */
+	private Map<String, List<String>> fetchInPage() {
+		int waitInSec = (int) ((batchMs + Math.max(settleMs * 10, 500)) / 1000) + 1;
+		List<?> result = (List<?>) util.runAsyncScript(JsScripts.SCROLL_ROWS, waitInSec, container.getType().name(),
+				container.getValue(), row.getType().name(), row.getValue(), properties, positionPx, batchRows,
+				batchMs, settleMs, keyAttributes);
+		if (result == null) {
+			end = true;
+			if (!started) {
+				throw new NotFoundException("Scroll container not found: " + container);
+			}
+			LOG.warn("scroll container {} disappeared after {} rows", container, rows);
+			return Collections.emptyMap();
+		}
+		started = true;
+		end = Boolean.TRUE.equals(result.get(1));
+		positionPx = ((Number) result.get(2)).longValue();
+		List<?> values = (List<?>) result.get(0);
+		List<?> keys = (List<?>) result.get(3);
+		Map<String, List<String>> fetched = new LinkedHashMap<String, List<String>>();
+		for (int i = 0; i < values.size(); i++) {
+			List<String> row = new ArrayList<String>(properties.size());
+			for (Object cell : (List<?>) values.get(i)) {
+				row.add(cell == null ? null : String.valueOf(cell));
+			}
+			fetched.put(String.valueOf(keys.get(i)), row);
+		}
+		return fetched;
+	}
+
+	/**
+	 * drivers without scripts can't scroll, rows rendered now are all there
+	 * is, keyed by index. Both lookups run without implicit wait, so an empty
+	 * list costs no wait.
+	 */
+	@SuppressWarnings("try")
+	private Map<String, List<String>> fetchRendered() {
+		end = true;
+		started = true;
+		List<WebElement> found;
+		try (ImplicitWaitScope scope = util.noImplicitWait()) {
+			List<WebElement> containers = util.getElementsNoChecks(container);
+			if (containers.isEmpty()) {
+				throw new NotFoundException("Scroll container not found: " + container);
+			}
+			OperationMetrics.command();
+			found = containers.get(0).findElements(row.by());
+		}
+		Map<String, List<String>> fetched = new LinkedHashMap<String, List<String>>();
+		for (List<String> row : util.readProperties(found, properties).getRows()) {
+			fetched.put("index:" + fetched.size(), row);
+		}
+		return fetched;
+	}
+
+	public List<String> getProperties() {
+		return properties;
+	}
+
+	public List<String> getKeyAttributes() {
+		return keyAttributes;
+	}
+
+	public int getBatchRows() {
+		return batchRows;
+	}
+
+	public int getMaxTrackedRows() {
+		return maxTrackedRows;
+	}
+
+	/**
+	 * @return number of script calls made so far.
+	 */
+	public int getBatchCount() {
+		return batches;
+	}
+
+	/**
+	 * @return number of distinct rows fetched so far.
+	 */
+	public long getRowCount() {
+		return rows;
+	}
+}
@@ -0,0 +1,63 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs tasks one at a time in submission order on a shared executor, so tasks
+ * of one session never hit its driver concurrently while sessions share
+ * threads. Lock free: a single drain task is scheduled whenever the queue is
+ * not empty and no drain is running.
+ *
+ */
+final class SerialExecutor implements Executor {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SerialExecutor.class);
+
+	private final Executor executor;
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+	private final AtomicBoolean draining = new AtomicBoolean();
+
+	SerialExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		tasks.add(task);
+		schedule();
+	}
+
+	private void schedule() {
+		if (!tasks.isEmpty() && draining.compareAndSet(false, true)) {
+			try {
+				executor.execute(this::drain);
+			} catch (RejectedExecutionException e) {
+				draining.set(false);
+				throw e;
+			}
+		}
+	}
+
+	private void drain() {
+		try {
+			Runnable task;
+			while ((task = tasks.poll()) != null) {
+				try {
+					task.run();
+				} catch (RuntimeException e) {
+					LOG.warn("serial task failed", e);
+				}
+			}
+		} finally {
+			draining.set(false);
+			schedule();
+		}
+	}
+}
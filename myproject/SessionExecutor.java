@@ -0,0 +1,159 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs flows of many browser sessions from one JVM, each flow on its own
+ * thread with the {@link WebElementsUtil} of its driver. Session threads
+ * spend nearly all their time blocked on remote commands and waits, so on JDK
+ * 21+ virtual threads are used and hundreds of sessions can run without a
+ * platform thread each. On older JDKs a cached pool of daemon platform
+ * threads is used.
+ *
+ * WebElementsUtil waits sleep with {@link Thread#sleep(long)} and hold no
+ * monitors while blocked, so virtual threads are not pinned to their carrier.
+ * A driver must not be used by two flows at the same time.
+ *
+ * <pre>
+ * try (SessionExecutor sessions = new SessionExecutor()) {
+ * 	List&lt;String&gt; titles = sessions.invokeAll(drivers, util -&gt; util.getElementById("title").getText());
+ * }
+ * </pre>
+ *
+ */
+public class SessionExecutor implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SessionExecutor.class);
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private final ExecutorService executor;
+	private final boolean virtualThreads;
+
+	/**
+	 * executor on virtual threads when JVM supports them.
+	 */
+	public SessionExecutor() {
+		this(true);
+	}
+
+	/**
+	 * @param preferVirtualThreads
+	 *            false to always use platform threads.
+	 */
+	public SessionExecutor(boolean preferVirtualThreads) {
+		ExecutorService virtual = preferVirtualThreads ? newVirtualThreadExecutor() : null;
+		this.virtualThreads = virtual != null;
+		this.executor = virtual != null ? virtual : newPlatformThreadExecutor();
+		LOG.debug("session executor started on {} threads", virtualThreads ? "virtual" : "platform");
+	}
+
+	/**
+	 * Executors.newVirtualThreadPerTaskExecutor() is looked up reflectively,
+	 * the framework still builds for Java 8.
+	 */
+	static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * cached pool of daemon threads named weu-session-N.
+	 */
+	static ExecutorService newPlatformThreadExecutor() {
+		return Executors.newCachedThreadPool(new SessionThreadFactory());
+	}
+
+	private static final class SessionThreadFactory implements ThreadFactory {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "weu-session-" + THREAD_COUNT.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * @return true if flows run on virtual threads.
+	 */
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * run flow on its own thread with util of given driver.
+	 *
+	 * @param driver
+	 * @param flow
+	 * @return future completed with flow result, or exceptionally with
+	 *         exception thrown by flow.
+	 */
+	public <T> CompletableFuture<T> submit(WebDriver driver, Function<WebElementsUtil, T> flow) {
+		return CompletableFuture.supplyAsync(() -> flow.apply(WebElementsUtil.getInstance(driver)), executor);
+	}
+
+	public CompletableFuture<Void> run(WebDriver driver, Consumer<WebElementsUtil> flow) {
+		return CompletableFuture.runAsync(() -> flow.accept(WebElementsUtil.getInstance(driver)), executor);
+	}
+
+	/**
+	 * run flow for every driver in parallel and wait for all of them.
+	 *
+	 * @param drivers
+	 * @param flow
+	 * @return results in order of drivers.
+	 * @throws RuntimeException
+	 *             first exception thrown by a flow, after all flows are done.
+	 */
+	public <T> List<T> invokeAll(Collection<? extends WebDriver> drivers, Function<WebElementsUtil, T> flow) {
+		List<CompletableFuture<T>> futures = new ArrayList<CompletableFuture<T>>(drivers.size());
+		for (WebDriver driver : drivers) {
+			futures.add(submit(driver, flow));
+		}
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+		List<T> results = new ArrayList<T>(futures.size());
+		for (CompletableFuture<T> future : futures) {
+			results.add(future.join());
+		}
+		return results;
+	}
+
+	/**
+	 * stop accepting flows and wait for running ones to finish.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				LOG.debug("waiting for session flows to finish");
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+}
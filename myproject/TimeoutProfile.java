@@ -0,0 +1,301 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Named set of timeouts and poll intervals used by {@link WebElementsUtil}:
+ * default find timeout, default hide timeout, poll intervals of hide waits,
+ * back-off of {@link WaitEngine}, app idle quiet period and whether driver
+ * runs without implicit wait. Immutable, the <code>with</code> methods return
+ * modified copies.
+ *
+ * Presets: {@link #DEFAULT} (timeouts WebElementsUtil always had),
+ * {@link #LOCAL} for fast stubbed runs, {@link #CI} and {@link #STAGING} for
+ * slow environments. {@link #fromSystemProperties()} picks the preset named by
+ * {@value #PROFILE_PROPERTY} and applies overrides from the properties file
+ * named by {@value #FILE_PROPERTY}, e.g.
+ *
+ * <pre>
+ * -Dwebelements.timeout.profile=staging -Dwebelements.timeout.file=timeouts.properties
+ *
+ * # timeouts.properties
+ * staging.findTimeoutSec=40
+ * staging.hidePollMs=2000
+ * </pre>
+ *
+ * Profile of a util is switched at runtime with
+ * {@link WebElementsUtil#setTimeoutProfile(TimeoutProfile)}.
+ *
+ */
+public final class TimeoutProfile {
+
+	public static final String PROFILE_PROPERTY = "webelements.timeout.profile";
+	public static final String FILE_PROPERTY = "webelements.timeout.file";
+
+	public static final TimeoutProfile DEFAULT = new TimeoutProfile("default", 15, 120, 5000, 1000,
+			WaitEngine.DEFAULT_INITIAL_POLL_MS, WaitEngine.DEFAULT_BACKOFF_FACTOR, WaitEngine.DEFAULT_MAX_POLL_MS, 100,
+			false);
+	public static final TimeoutProfile LOCAL = new TimeoutProfile("local", 3, 20, 250, 100, 10, 1.5, 100, 50,
+			false);
+	public static final TimeoutProfile CI = new TimeoutProfile("ci", 15, 120, 2000, 500, 50, 1.5, 500, 100, false);
+	public static final TimeoutProfile STAGING = new TimeoutProfile("staging", 30, 240, 5000, 1000, 100, 2, 1000,
+			200, false);
+
+	/**
+	 * profile of {@link #fromSystemProperties()} keyed by property values.
+	 */
+	private static volatile Map.Entry<String, TimeoutProfile> systemProfile;
+
+	private final String name;
+	private final int findTimeoutSec;
+	private final int hideTimeoutSec;
+	private final long hidePollMs;
+	private final long hideFastPollMs;
+	private final long pollInitialMs;
+	private final double backoffFactor;
+	private final long pollMaxMs;
+	private final long appIdleQuietMs;
+	private final boolean explicitWaitsOnly;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if a timeout is negative, a poll interval is not positive,
+	 *             max poll is below initial poll or back-off factor is below 1.
+	 */
+	private TimeoutProfile(String name, int findTimeoutSec, int hideTimeoutSec, long hidePollMs,
+			long hideFastPollMs, long pollInitialMs, double backoffFactor, long pollMaxMs, long appIdleQuietMs,
+			boolean explicitWaitsOnly) {
+		check(name, "findTimeoutSec", findTimeoutSec >= 0, findTimeoutSec);
+		check(name, "hideTimeoutSec", hideTimeoutSec >= 0, hideTimeoutSec);
+		check(name, "hidePollMs", hidePollMs > 0, hidePollMs);
+		check(name, "hideFastPollMs", hideFastPollMs > 0, hideFastPollMs);
+		check(name, "pollInitialMs", pollInitialMs > 0, pollInitialMs);
+		check(name, "backoffFactor", backoffFactor >= 1, backoffFactor);
+		check(name, "pollMaxMs", pollMaxMs >= pollInitialMs, pollMaxMs);
+		check(name, "appIdleQuietMs", appIdleQuietMs >= 0, appIdleQuietMs);
+		this.name = name;
+		this.findTimeoutSec = findTimeoutSec;
+		this.hideTimeoutSec = hideTimeoutSec;
+		this.hidePollMs = hidePollMs;
+		this.hideFastPollMs = hideFastPollMs;
+		this.pollInitialMs = pollInitialMs;
+		this.backoffFactor = backoffFactor;
+		this.pollMaxMs = pollMaxMs;
+		this.appIdleQuietMs = appIdleQuietMs;
+		this.explicitWaitsOnly = explicitWaitsOnly;
+	}
+
+	/**
+	 * @param name
+	 *            default, local, ci or staging, case insensitive.
+	 * @return preset with given name.
+	 * @throws IllegalArgumentException
+	 *             if there is no such preset.
+	 */
+	public static TimeoutProfile preset(String name) {
+		switch (name.trim().toLowerCase(Locale.ROOT)) {
+		case "default":
+			return DEFAULT;
+		case "local":
+			return LOCAL;
+		case "ci":
+			return CI;
+		case "staging":
+			return STAGING;
+		default:
+			throw new IllegalArgumentException("Unknown timeout profile: " + name);
+		}
+	}
+
+	/**
+	 * @return preset named by {@value #PROFILE_PROPERTY}, {@link #DEFAULT} if
+	 *         unset, with overrides from file named by {@value #FILE_PROPERTY}
+	 *         if set. File is read once per value of the two properties.
+	 */
+	public static TimeoutProfile fromSystemProperties() {
+		String profileName = System.getProperty(PROFILE_PROPERTY, "default");
+		String file = System.getProperty(FILE_PROPERTY);
+		String key = profileName + "\n" + file;
+		Map.Entry<String, TimeoutProfile> cached = systemProfile;
+		if (cached == null || !cached.getKey().equals(key)) {
+			cached = new AbstractMap.SimpleImmutableEntry<String, TimeoutProfile>(key, load(profileName, file));
+			systemProfile = cached;
+		}
+		return cached.getValue();
+	}
+
+	private static TimeoutProfile load(String profileName, String file) {
+		TimeoutProfile profile = preset(profileName);
+		if (file == null) {
+			return profile;
+		}
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(Paths.get(file))) {
+			properties.load(in);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Couldn't load timeout profiles " + file, e);
+		}
+		return profile.withOverrides(properties);
+	}
+
+	/**
+	 * apply overrides named <code>&lt;profile name&gt;.&lt;field&gt;</code>,
+	 * e.g. <code>ci.findTimeoutSec</code>. Properties of other profiles are
+	 * ignored.
+	 *
+	 * @param properties
+	 * @return
+	 */
+	public TimeoutProfile withOverrides(Properties properties) {
+		String prefix = name + ".";
+		return new TimeoutProfile(name,
+				intValue(properties, prefix + "findTimeoutSec", findTimeoutSec),
+				intValue(properties, prefix + "hideTimeoutSec", hideTimeoutSec),
+				longValue(properties, prefix + "hidePollMs", hidePollMs),
+				longValue(properties, prefix + "hideFastPollMs", hideFastPollMs),
+				longValue(properties, prefix + "pollInitialMs", pollInitialMs),
+				Double.parseDouble(properties.getProperty(prefix + "backoffFactor", String.valueOf(backoffFactor))),
+				longValue(properties, prefix + "pollMaxMs", pollMaxMs),
+				longValue(properties, prefix + "appIdleQuietMs", appIdleQuietMs),
+				Boolean.parseBoolean(
+						properties.getProperty(prefix + "explicitWaitsOnly", String.valueOf(explicitWaitsOnly)).trim()));
+	}
+
+	public TimeoutProfile withFindTimeoutSec(int findTimeoutSec) {
+		return new TimeoutProfile(name, findTimeoutSec, hideTimeoutSec, hidePollMs, hideFastPollMs, pollInitialMs,
+				backoffFactor, pollMaxMs, appIdleQuietMs, explicitWaitsOnly);
+	}
+
+	public TimeoutProfile withHideTimeoutSec(int hideTimeoutSec) {
+		return new TimeoutProfile(name, findTimeoutSec, hideTimeoutSec, hidePollMs, hideFastPollMs, pollInitialMs,
+				backoffFactor, pollMaxMs, appIdleQuietMs, explicitWaitsOnly);
+	}
+
+	public TimeoutProfile withHidePollMs(long hidePollMs, long hideFastPollMs) {
+		return new TimeoutProfile(name, findTimeoutSec, hideTimeoutSec, hidePollMs, hideFastPollMs, pollInitialMs,
+				backoffFactor, pollMaxMs, appIdleQuietMs, explicitWaitsOnly);
+	}
+
+	public TimeoutProfile withBackoff(long pollInitialMs, double backoffFactor, long pollMaxMs) {
+		return new TimeoutProfile(name, findTimeoutSec, hideTimeoutSec, hidePollMs, hideFastPollMs, pollInitialMs,
+				backoffFactor, pollMaxMs, appIdleQuietMs, explicitWaitsOnly);
+	}
+
+	public TimeoutProfile withAppIdleQuietMs(long appIdleQuietMs) {
+		return new TimeoutProfile(name, findTimeoutSec, hideTimeoutSec, hidePollMs, hideFastPollMs, pollInitialMs,
+				backoffFactor, pollMaxMs, appIdleQuietMs, explicitWaitsOnly);
+	}
+
+	/**
+	 * run driver without implicit wait: no wait lookups turn implicit wait off
+	 * and leave it off instead of setting it back to find timeout, which saves
+	 * two commands per lookup. Driver lookups outside WebElementsUtil then no
+	 * longer wait, so this is off in all presets.
+	 *
+	 * @param explicitWaitsOnly
+	 * @return
+	 */
+	public TimeoutProfile withExplicitWaitsOnly(boolean explicitWaitsOnly) {
+		return new TimeoutProfile(name, findTimeoutSec, hideTimeoutSec, hidePollMs, hideFastPollMs, pollInitialMs,
+				backoffFactor, pollMaxMs, appIdleQuietMs, explicitWaitsOnly);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return wait in sec of methods without wait argument.
+	 */
+	public int getFindTimeoutSec() {
+		return findTimeoutSec;
+	}
+
+	/**
+	 * @return wait in sec of hide waits without wait argument.
+	 */
+	public int getHideTimeoutSec() {
+		return hideTimeoutSec;
+	}
+
+	/**
+	 * @return poll interval of hide waits polling element attributes.
+	 */
+	public long getHidePollMs() {
+		return hidePollMs;
+	}
+
+	/**
+	 * @return poll interval of first polls of hide waits expecting a quick
+	 *         hide.
+	 */
+	public long getHideFastPollMs() {
+		return hideFastPollMs;
+	}
+
+	public long getPollInitialMs() {
+		return pollInitialMs;
+	}
+
+	public double getBackoffFactor() {
+		return backoffFactor;
+	}
+
+	public long getPollMaxMs() {
+		return pollMaxMs;
+	}
+
+	/**
+	 * @return time with no pending request after which app is idle.
+	 */
+	public long getAppIdleQuietMs() {
+		return appIdleQuietMs;
+	}
+
+	/**
+	 * @return true if driver runs without implicit wait, see
+	 *         {@link #withExplicitWaitsOnly(boolean)}.
+	 */
+	public boolean isExplicitWaitsOnly() {
+		return explicitWaitsOnly;
+	}
+
+	/**
+	 * @return {@link WaitEngine} back-off of this profile.
+	 */
+	public WaitEngine.Backoff backoff() {
+		return WaitEngine.exponential(pollInitialMs, backoffFactor, pollMaxMs);
+	}
+
+	@Override
+	public String toString() {
+		return "TimeoutProfile[" + name + ", find " + findTimeoutSec + " s, hide " + hideTimeoutSec + " s, hide poll "
+				+ hidePollMs + "/" + hideFastPollMs + " ms, poll " + pollInitialMs + "*" + backoffFactor + "^n<="
+				+ pollMaxMs + " ms, idle quiet " + appIdleQuietMs + " ms" + (explicitWaitsOnly ? ", explicit waits only" : "")
+				+ "]";
+	}
+
+	private static void check(String name, String field, boolean valid, Object value) {
+		if (!valid) {
+			throw new IllegalArgumentException("Invalid " + field + " of timeout profile " + name + ": " + value);
+		}
+	}
+
+	private static int intValue(Properties properties, String key, int defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	private static long longValue(Properties properties, String key, long defaultValue) {
+		String value = properties.getProperty(key);
+		return value == null ? defaultValue : Long.parseLong(value.trim());
+	}
+}
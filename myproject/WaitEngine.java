@@ -0,0 +1,160 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.function.Function;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Wait engine used by {@link WebElementsUtil} for all explicit waits. One
+ * instance is kept per driver and reused for every wait.
+ *
+ * Condition is probed once immediately, then re-probed with poll interval
+ * given by {@link Backoff}. Default back-off starts at
+ * {@value #DEFAULT_INITIAL_POLL_MS} ms and grows by
+ * {@value #DEFAULT_BACKOFF_FACTOR} up to {@value #DEFAULT_MAX_POLL_MS} ms, so
+ * elements that show up quickly are picked up without paying for a full
+ * WebDriverWait poll interval.
+ *
+ * Conditions get a driver counting commands for {@link OperationMetrics};
+ * elements they return are unwrapped, so callers get the driver's own.
+ *
+ * Like WebDriverWait, {@link NotFoundException} and
+ * {@link StaleElementReferenceException} thrown by condition are ignored until
+ * timeout.
+ *
+ */
+public class WaitEngine {
+
+	public static final long DEFAULT_INITIAL_POLL_MS = 50;
+	public static final long DEFAULT_MAX_POLL_MS = 500;
+	public static final double DEFAULT_BACKOFF_FACTOR = 1.5;
+
+	/**
+	 * compute the next poll interval.
+	 */
+	@FunctionalInterface
+	public interface Backoff {
+		/**
+		 * @param iteration
+		 *            number of probes done so far, starts at 1.
+		 * @return time in ms to sleep before next probe.
+		 */
+		long nextPollMs(int iteration);
+	}
+
+	private final WebDriver driver;
+	private volatile Backoff backoff;
+
+	public WaitEngine(WebDriver driver) {
+		this(driver, exponential(DEFAULT_INITIAL_POLL_MS, DEFAULT_BACKOFF_FACTOR, DEFAULT_MAX_POLL_MS));
+	}
+
+	public WaitEngine(WebDriver driver, Backoff backoff) {
+		this.driver = driver;
+		this.backoff = backoff;
+	}
+
+	/**
+	 * poll with fixed interval.
+	 *
+	 * @param pollMs
+	 * @return
+	 */
+	public static Backoff fixed(long pollMs) {
+		return iteration -> pollMs;
+	}
+
+	/**
+	 * poll interval starting at initialPollMs and multiplied by factor after
+	 * every probe, capped at maxPollMs.
+	 *
+	 * @param initialPollMs
+	 * @param factor
+	 * @param maxPollMs
+	 * @return
+	 */
+	public static Backoff exponential(long initialPollMs, double factor, long maxPollMs) {
+		return iteration -> {
+			double poll = initialPollMs * Math.pow(factor, iteration - 1);
+			return poll >= maxPollMs ? maxPollMs : (long) poll;
+		};
+	}
+
+	public Backoff getBackoff() {
+		return backoff;
+	}
+
+	public void setBackoff(Backoff backoff) {
+		this.backoff = backoff;
+	}
+
+	/**
+	 * wait until condition returns non null value which is not
+	 * {@link Boolean#FALSE}.
+	 *
+	 * @param condition
+	 * @param timeoutInSec
+	 * @return value returned by condition.
+	 * @throws TimeoutException
+	 *             if condition is not met within timeout.
+	 */
+	public <T> T until(Function<? super WebDriver, T> condition, int timeoutInSec) {
+		return untilMillis(condition, timeoutInSec * 1000L);
+	}
+
+	/**
+	 * wait until condition returns non null value which is not
+	 * {@link Boolean#FALSE}.
+	 *
+	 * @param condition
+	 * @param timeoutMs
+	 * @return value returned by condition.
+	 * @throws TimeoutException
+	 *             if condition is not met within timeout.
+	 */
+	public <T> T untilMillis(Function<? super WebDriver, T> condition, long timeoutMs) {
+		long start = System.nanoTime();
+		long end = start + timeoutMs * 1_000_000L;
+		Backoff poll = backoff;
+		RuntimeException lastException = null;
+		int iteration = 0;
+		WebDriver probed = OperationMetrics.counted(driver);
+		try {
+			while (true) {
+				iteration++;
+				try {
+					T value = condition.apply(probed);
+					if (value != null && !Boolean.FALSE.equals(value)) {
+						return OperationMetrics.uncounted(value);
+					}
+					lastException = null;
+				} catch (NotFoundException | StaleElementReferenceException e) {
+					lastException = e;
+				}
+
+				long remainingMs = (end - System.nanoTime()) / 1_000_000L;
+				if (remainingMs <= 0) {
+					throw new TimeoutException(String.format(
+							"Expected condition failed: waiting for %s (tried for %d ms with %d probes)", condition,
+							timeoutMs, iteration), lastException);
+				}
+				sleep(Math.min(poll.nextPollMs(iteration), remainingMs));
+			}
+		} finally {
+			OperationMetrics.waited(System.nanoTime() - start, iteration);
+		}
+	}
+
+	private static void sleep(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new WebDriverException(e);
+		}
+	}
+}
@@ -1,328 +1,498 @@
 package com.symantec.cws.automation.test.framework.ui.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import org.openqa.selenium.By;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.ElementNotInteractableException;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.symantec.cws.automation.test.framework.util.Utils;
-
 /**
  * This contains all method related to web elements.
  * 
  * @author Avinesh_Kumar
  *
  */
-
+// try-with-resources hold implicit wait scopes and metrics samples only for
+// their close()
+@SuppressWarnings("try")
 public class WebElementsUtil {
 
 	private static final Logger LOG = LoggerFactory.getLogger(WebElementsUtil.class);
-	private static final int DEFAULT_WAIT = 15;
-	private static final int DEFAULT_MAX_WAIT_ELEMENT_TOHIDE = 120;
+	private static final int SCRIPT_TIMEOUT_MARGIN = 5;
+	/**
+	 * W3C default script timeout, Selenium 3 can't read the actual one.
+	 */
+	private static final int DEFAULT_SCRIPT_TIMEOUT_SEC = 30;
+	private static final int BULK_READ_CHUNK_SIZE = 500;
+	private static final int POLLS_BEFORE_BACKOFF = 5;
+	private static final long STILL_WAITING_LOG_INTERVAL_MS = 30000;
 
 	private WebDriver driver;
-	private static Map<WebDriver, WebElementsUtil> webDriverUtilsPool;
+	private static final ConcurrentMap<WebDriver, WebElementsUtil> webDriverUtilsPool = new ConcurrentHashMap<WebDriver, WebElementsUtil>();
+	private static final LongAdder poolHits = new LongAdder();
+	private static final LongAdder poolMisses = new LongAdder();
 	private Actions actions;
+	private volatile WaitEngine waitEngine;
+	private volatile TimeoutProfile timeoutProfile;
+	private volatile HideWaitMode hideWaitMode = HideWaitMode.OBSERVER;
+	private volatile int scriptTimeoutSec = DEFAULT_SCRIPT_TIMEOUT_SEC;
+	/**
+	 * guards script timeout commands, a lock instead of a monitor so virtual
+	 * threads waiting on the driver don't pin their carrier.
+	 */
+	private final ReentrantLock scriptTimeoutLock = new ReentrantLock();
+	private volatile boolean autoWaitForAppIdle;
+	private volatile int implicitWaitSec = -1;
+	private volatile boolean resilientElements;
+	private volatile ElementCache elementCache;
+	private volatile LocatorHealer locatorHealer;
+	private volatile AsyncWebElementsUtil async;
+	private final ScriptRegistry scripts;
 
 	private WebElementsUtil(WebDriver webDriver) {
 		driver = webDriver;
 		actions = new Actions(driver);
+		timeoutProfile = TimeoutProfile.fromSystemProperties();
+		waitEngine = new WaitEngine(driver, timeoutProfile.backoff());
+		scripts = new ScriptRegistry(this);
 	}
 
+	/**
+	 * return the WebElementsUtil bound to given driver, creating it on first
+	 * use. Lookup is lock free, so it is safe to call from parallel test
+	 * threads. Instances of drivers that have been quit are evicted whenever a
+	 * new instance is created, use {@link #release(WebDriver)} or
+	 * {@link #quit(WebDriver)} to evict eagerly.
+	 * 
+	 * @param driver
+	 * @return
+	 */
 	public static WebElementsUtil getInstance(WebDriver driver) {
-		WebElementsUtil automUtils = null;
-		if (webDriverUtilsPool == null) {
-			automUtils = new WebElementsUtil(driver);
-			webDriverUtilsPool = new HashMap<WebDriver, WebElementsUtil>();
-			webDriverUtilsPool.put(driver, automUtils);
-		} else {
-			if (webDriverUtilsPool.keySet().contains(driver)) {
-				automUtils = webDriverUtilsPool.get(driver);
-			} else {
-				automUtils = new WebElementsUtil(driver);
-				webDriverUtilsPool.put(driver, automUtils);
-			}
+		WebElementsUtil automUtils = webDriverUtilsPool.get(driver);
+		if (automUtils != null) {
+			poolHits.increment();
+			return automUtils;
 		}
-		return automUtils;
+		poolMisses.increment();
+		evictQuitDrivers();
+		return webDriverUtilsPool.computeIfAbsent(driver, WebElementsUtil::new);
 	}
 
-	public Actions getActionsInstance() {
-		return actions;
+	/**
+	 * remove the WebElementsUtil bound to given driver from pool. Driver is
+	 * not quit.
+	 * 
+	 * @param driver
+	 * @return true if driver was pooled.
+	 */
+	public static boolean release(WebDriver driver) {
+		return webDriverUtilsPool.remove(driver) != null;
 	}
 
 	/**
-	 * return element if it is visible on page.
+	 * quit the driver and release its WebElementsUtil from pool.
 	 * 
-	 * @param t
-	 * @param locatorValue
-	 * @param wait
-	 * @return
+	 * @param driver
 	 */
-	public WebElement getVisibleElement(LocatorType t, String locatorValue, int wait) {
-		WebElement element = null;
-
-		switch (t) {
-		case ID:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfElementLocated(By.id(locatorValue)));
-			break;
-		case CLASSNAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfElementLocated(By.className(locatorValue)));
-			break;
-
-		case XPATH:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfElementLocated(By.xpath(locatorValue)));
-
-			break;
-		case CSSSELECTOR:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfElementLocated(By.cssSelector(locatorValue)));
-
-			break;
-
-		case NAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfElementLocated(By.name(locatorValue)));
-
-			break;
-
-		case TAGNAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfElementLocated(By.tagName(locatorValue)));
-
-			break;
+	public static void quit(WebDriver driver) {
+		try {
+			driver.quit();
+		} finally {
+			release(driver);
+		}
+	}
 
-		case LINKTEXT:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfElementLocated(By.linkText(locatorValue)));
+	/**
+	 * @return number of drivers currently pooled.
+	 */
+	public static int getPoolSize() {
+		return webDriverUtilsPool.size();
+	}
 
-			break;
+	/**
+	 * @return number of {@link #getInstance(WebDriver)} calls served from pool.
+	 */
+	public static long getPoolHits() {
+		return poolHits.sum();
+	}
 
-		case PARTIALLINKTEXT:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfElementLocated(By.partialLinkText(locatorValue)));
+	/**
+	 * @return number of {@link #getInstance(WebDriver)} calls that created a
+	 *         new instance.
+	 */
+	public static long getPoolMisses() {
+		return poolMisses.sum();
+	}
 
-			break;
-		default:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfElementLocated(By.id(locatorValue)));
+	/**
+	 * remote drivers drop their session id on quit, so those entries are
+	 * unreachable garbage holding the whole session graph.
+	 */
+	private static void evictQuitDrivers() {
+		webDriverUtilsPool.keySet().removeIf(
+				d -> d instanceof RemoteWebDriver && ((RemoteWebDriver) d).getSessionId() == null);
+	}
 
-			break;
+	/**
+	 * @return CompletableFuture variants of this util's operations, run one at
+	 *         a time on this util's driver. Created on first call.
+	 */
+	public AsyncWebElementsUtil async() {
+		AsyncWebElementsUtil facade = async;
+		if (facade == null) {
+			synchronized (this) {
+				facade = async;
+				if (facade == null) {
+					facade = new AsyncWebElementsUtil(this);
+					async = facade;
+				}
+			}
 		}
+		return facade;
+	}
 
-		return element;
+	public Actions getActionsInstance() {
+		return actions;
 	}
 
 	/**
-	 * return list of web element if it element identified by locator is visible
-	 * on page.
-	 * 
-	 * @param t
-	 * @param locatorValue
-	 * @param wait
-	 * @return
+	 * @return wait engine used by all explicit waits of this instance.
 	 */
-	public List<WebElement> getVisibleElements(LocatorType t, String locatorValue, int wait) {
-		List<WebElement> element = null;
-
-		switch (t) {
-		case ID:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.id(locatorValue)));
-			break;
-		case CLASSNAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.className(locatorValue)));
-			break;
-
-		case XPATH:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.xpath(locatorValue)));
-
-			break;
-		case CSSSELECTOR:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.cssSelector(locatorValue)));
+	public WaitEngine getWaitEngine() {
+		return waitEngine;
+	}
 
-			break;
+	/**
+	 * replace the wait engine used by all explicit waits of this instance.
+	 * 
+	 * @param waitEngine
+	 */
+	public void setWaitEngine(WaitEngine waitEngine) {
+		this.waitEngine = waitEngine;
+	}
 
-		case NAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.name(locatorValue)));
+	public TimeoutProfile getTimeoutProfile() {
+		return timeoutProfile;
+	}
 
-			break;
+	/**
+	 * switch timeouts and poll intervals of this util, also sets back-off of
+	 * its {@link WaitEngine}. Initial profile is
+	 * {@link TimeoutProfile#fromSystemProperties()}.
+	 * 
+	 * @param timeoutProfile
+	 */
+	public void setTimeoutProfile(TimeoutProfile timeoutProfile) {
+		this.timeoutProfile = timeoutProfile;
+		waitEngine.setBackoff(timeoutProfile.backoff());
+	}
 
-		case TAGNAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.tagName(locatorValue)));
+	/**
+	 * @return find timeout of current timeout profile, used by methods without
+	 *         wait argument.
+	 */
+	private int defaultWait() {
+		return timeoutProfile.getFindTimeoutSec();
+	}
 
-			break;
+	public HideWaitMode getHideWaitMode() {
+		return hideWaitMode;
+	}
 
-		case LINKTEXT:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.linkText(locatorValue)));
+	/**
+	 * set how {@code waitAngularElementToHidden} and
+	 * {@code waitElementToHiddenByDisplayAttrib} wait, default is
+	 * {@link HideWaitMode#OBSERVER}.
+	 * 
+	 * @param hideWaitMode
+	 */
+	public void setHideWaitMode(HideWaitMode hideWaitMode) {
+		this.hideWaitMode = hideWaitMode;
+	}
 
-			break;
+	public boolean isAutoWaitForAppIdle() {
+		return autoWaitForAppIdle;
+	}
 
-		case PARTIALLINKTEXT:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.partialLinkText(locatorValue)));
+	/**
+	 * when enabled, click, send keys and dropdown select calls first wait for
+	 * {@link #waitForAppIdle()}. Disabled by default.
+	 * 
+	 * @param autoWaitForAppIdle
+	 */
+	public void setAutoWaitForAppIdle(boolean autoWaitForAppIdle) {
+		this.autoWaitForAppIdle = autoWaitForAppIdle;
+	}
 
-			break;
-		default:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.id(locatorValue)));
+	public boolean isElementCache() {
+		return elementCache != null;
+	}
 
-			break;
+	/**
+	 * when enabled, elements found by {@code getElement} methods are cached
+	 * per locator and reused while page DOM is unchanged, so repeated lookups
+	 * on a stable page cost one command instead of a wait and a find. Cache is
+	 * only used when driver can execute javascript. Disabled by default.
+	 * 
+	 * @param enabled
+	 */
+	public void setElementCache(boolean enabled) {
+		if (!enabled) {
+			elementCache = null;
+		} else if (elementCache == null) {
+			elementCache = new ElementCache(this);
 		}
-
-		return element;
 	}
 
-	public boolean waitUntilWebElementHidden(LocatorType t, String locatorValue, int wait) {
+	/**
+	 * drop all cached elements, e.g. after a change the DOM generation token
+	 * can't see such as in place attribute changes.
+	 */
+	public void clearElementCache() {
+		ElementCache cache = elementCache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
 
-		boolean isHidden = false;
+	/**
+	 * @return number of lookups served by element cache without re-resolving,
+	 *         0 when cache is disabled.
+	 */
+	public long getElementCacheHits() {
+		ElementCache cache = elementCache;
+		return cache == null ? 0 : cache.getHits();
+	}
 
-		switch (t) {
-		case ID:
-			isHidden = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.invisibilityOfElementLocated(By.id(locatorValue)));
-			break;
-		case CLASSNAME:
-			isHidden = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.invisibilityOfElementLocated(By.className(locatorValue)));
-			break;
+	public LocatorHealer getLocatorHealer() {
+		return locatorHealer;
+	}
 
-		case XPATH:
-			isHidden = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.invisibilityOfElementLocated(By.xpath(locatorValue)));
+	/**
+	 * heal locators which stop matching in {@code getElement} methods, see
+	 * {@link LocatorHealer}. Null, the default, disables healing.
+	 * 
+	 * @param locatorHealer
+	 */
+	public void setLocatorHealer(LocatorHealer locatorHealer) {
+		this.locatorHealer = locatorHealer;
+	}
 
-			break;
-		case CSSSELECTOR:
-			isHidden = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.invisibilityOfElementLocated(By.cssSelector(locatorValue)));
+	public boolean isResilientElements() {
+		return resilientElements;
+	}
 
-			break;
+	/**
+	 * when enabled, {@code getElement} methods return
+	 * {@link ResilientWebElement}s which re-locate themselves when they go
+	 * stale. Disabled by default.
+	 * 
+	 * @param resilientElements
+	 */
+	public void setResilientElements(boolean resilientElements) {
+		this.resilientElements = resilientElements;
+	}
 
-		case NAME:
-			isHidden = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.invisibilityOfElementLocated(By.name(locatorValue)));
+	/**
+	 * {@link #waitForAppIdle(int)} with find timeout of
+	 * {@link #getTimeoutProfile() timeout profile}
+	 * 
+	 * @return
+	 */
+	public boolean waitForAppIdle() {
+		return waitForAppIdle(defaultWait());
+	}
 
-			break;
+	/**
+	 * wait until angular app is quiescent: angular testability reports stable
+	 * (no pending $http or $timeout) and no XHR/fetch request is pending for
+	 * app idle quiet period of {@link #getTimeoutProfile() timeout profile}.
+	 * 
+	 * @param waitInSec
+	 * @return true if app became idle, false on timeout or when driver can't run
+	 *         async scripts.
+	 */
+	public boolean waitForAppIdle(int waitInSec) {
+		if (!supportsScripts()) {
+			return false;
+		}
+		long start = System.nanoTime();
+		try (OperationMetrics.Sample sample = OperationMetrics.start("waitForAppIdle", null)) {
+			Object idle = runAsyncScript(JsScripts.WAIT_FOR_APP_IDLE, waitInSec, waitInSec * 1000L,
+					timeoutProfile.getAppIdleQuietMs());
+			OperationMetrics.waited(System.nanoTime() - start, 1);
+			if (!Boolean.TRUE.equals(idle)) {
+				LOG.debug("app is not idle after {} sec", waitInSec);
+				return false;
+			}
+			return true;
+		} catch (WebDriverException e) {
+			LOG.debug("app idle wait failed", e);
+			return false;
+		}
+	}
 
-		case TAGNAME:
-			isHidden = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.invisibilityOfElementLocated(By.tagName(locatorValue)));
+	void awaitAppIdleIfEnabled() {
+		if (autoWaitForAppIdle) {
+			waitForAppIdle();
+		}
+	}
 
-			break;
+	/**
+	 * return element if it is visible on page.
+	 * 
+	 * @param t
+	 * @param locatorValue
+	 * @param wait
+	 * @return
+	 */
+	public WebElement getVisibleElement(LocatorType t, String locatorValue, int wait) {
+		return getVisibleElement(Locator.of(t, locatorValue), wait);
+	}
 
-		case LINKTEXT:
-			isHidden = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.invisibilityOfElementLocated(By.linkText(locatorValue)));
+	/**
+	 * return element if it is visible on page.
+	 * 
+	 * @param locator
+	 * @param wait
+	 * @return
+	 */
+	public WebElement getVisibleElement(Locator locator, int wait) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("getVisibleElement", locator)) {
+			return waitEngine.until(ExpectedConditions.visibilityOfElementLocated(locator.by()), wait);
+		}
+	}
 
-			break;
+	/**
+	 * return list of web element if it element identified by locator is visible
+	 * on page.
+	 * 
+	 * @param t
+	 * @param locatorValue
+	 * @param wait
+	 * @return
+	 */
+	public List<WebElement> getVisibleElements(LocatorType t, String locatorValue, int wait) {
+		return getVisibleElements(Locator.of(t, locatorValue), wait);
+	}
 
-		case PARTIALLINKTEXT:
-			isHidden = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.invisibilityOfElementLocated(By.partialLinkText(locatorValue)));
+	/**
+	 * return list of web element if it element identified by locator is visible
+	 * on page.
+	 * 
+	 * @param locator
+	 * @param wait
+	 * @return
+	 */
+	public List<WebElement> getVisibleElements(Locator locator, int wait) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("getVisibleElements", locator)) {
+			return waitEngine.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator.by()), wait);
+		}
+	}
 
-			break;
-		default:
-			isHidden = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.invisibilityOfElementLocated(By.id(locatorValue)));
+	public boolean waitUntilWebElementHidden(LocatorType t, String locatorValue, int wait) {
+		return waitUntilWebElementHidden(Locator.of(t, locatorValue), wait);
+	}
 
-			break;
+	public boolean waitUntilWebElementHidden(Locator locator, int wait) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("waitUntilWebElementHidden", locator)) {
+			return waitEngine.until(ExpectedConditions.invisibilityOfElementLocated(locator.by()), wait);
 		}
-
-		return isHidden;
 	}
 
 	/**
 	 * return web element if it is present in DOM, this method doesn't check the
 	 * visibility of <br>
 	 * web element on page. For web element visibility refer
-	 * {@link #getVisibleElement(LocatorType, String, int)}
+	 * {@link #getVisibleElement(Locator, int)}
 	 *
-	 * @param t
-	 * @param locatorValue
+	 * @param locator
 	 * @param wait
 	 * @return
-	 * @see #getVisibleElement(LocatorType, String, int)
+	 * @see #getVisibleElement(Locator, int)
 	 * 
 	 */
-	private WebElement getWebElement(LocatorType t, String locatorValue, int wait) {
-		WebElement element = null;
-
-		switch (t) {
-		case ID:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfElementLocated(By.id(locatorValue)));
-			break;
-		case CLASSNAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfElementLocated(By.className(locatorValue)));
-			break;
-
-		case XPATH:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfElementLocated(By.xpath(locatorValue)));
-
-			break;
-		case CSSSELECTOR:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector(locatorValue)));
-
-			break;
-
-		case NAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfElementLocated(By.name(locatorValue)));
-
-			break;
-
-		case TAGNAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfElementLocated(By.tagName(locatorValue)));
-
-			break;
-
-		case LINKTEXT:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfElementLocated(By.linkText(locatorValue)));
-
-			break;
-
-		case PARTIALLINKTEXT:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfElementLocated(By.partialLinkText(locatorValue)));
-
-			break;
-		default:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfElementLocated(By.id(locatorValue)));
-
-			break;
+	private WebElement getWebElement(Locator locator, int wait) {
+		ElementCache cache = elementCache;
+		if (cache == null || !supportsScripts()) {
+			return waitEngine.until(ExpectedConditions.presenceOfElementLocated(locator.by()), wait);
+		}
+		WebElement element = cache.find(locator);
+		if (element == null) {
+			element = waitEngine.until(ExpectedConditions.presenceOfElementLocated(locator.by()), wait);
+			cache.put(locator, element);
 		}
+		return element;
+	}
 
+	/**
+	 * {@link #getWebElement(Locator, int)} recording fingerprint of found
+	 * element, or trying alternatives from fingerprint as soon as a zero wait
+	 * probe misses. A locator healed before is tried together with its healed
+	 * locator, so it doesn't time out again.
+	 */
+	private WebElement getHealingWebElement(LocatorHealer healer, Locator locator, int wait) {
+		Locator healedLocator = healer.getHealedLocator(locator);
+		if (healedLocator != null) {
+			LocatorMatch match = findFirst(wait, locator, healedLocator);
+			if (match == null) {
+				throw new TimeoutException("Neither " + locator + " nor its healed locator " + healedLocator
+						+ " matched within " + wait + " sec");
+			}
+			if (match.getIndex() == 0) {
+				healer.resolved(this, locator, match.getElement());
+			}
+			return match.getElement();
+		}
+		int remaining = wait;
+		if (healer.canHeal(this, locator)) {
+			long start = System.nanoTime();
+			try {
+				WebElement element = waitEngine.untilMillis(
+						ExpectedConditions.presenceOfElementLocated(locator.by()), wait * 1000L / 2);
+				healer.resolved(this, locator, element);
+				return element;
+			} catch (TimeoutException e) {
+				LOG.debug("{} not found within half of {} sec, healing it once app is idle", locator, wait);
+			}
+			int left = Math.max(0, wait - (int) TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+			if (waitForAppIdle(left)) {
+				long leftMs = Math.max(0, wait * 1000L - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				WebElement element = healer.heal(this, locator, leftMs);
+				if (element != null) {
+					return element;
+				}
+			}
+			remaining = Math.max(0, wait - (int) TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+		}
+		WebElement element = getWebElement(locator, remaining);
+		healer.resolved(this, locator, element);
 		return element;
 	}
 
@@ -330,68 +500,14 @@ public class WebElementsUtil {
 	 * return List of web element if it is present in DOM, this method doesn't
 	 * check the visibility of <br>
 	 * web element on page. For web element visibility refer
-	 * {@link #getVisibleElements(LocatorType, String, int)}
+	 * {@link #getVisibleElements(Locator, int)}
 	 *
-	 * @param t
-	 * @param locatorValue
+	 * @param locator
 	 * @param wait
 	 * @return
 	 */
-	private List<WebElement> getWebElements(LocatorType t, String locatorValue, int wait) {
-		List<WebElement> element = null;
-
-		switch (t) {
-		case ID:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.id(locatorValue)));
-			break;
-		case CLASSNAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.className(locatorValue)));
-			break;
-
-		case XPATH:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.xpath(locatorValue)));
-
-			break;
-		case CSSSELECTOR:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.cssSelector(locatorValue)));
-
-			break;
-
-		case NAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.name(locatorValue)));
-
-			break;
-
-		case TAGNAME:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.tagName(locatorValue)));
-
-			break;
-
-		case LINKTEXT:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.linkText(locatorValue)));
-
-			break;
-
-		case PARTIALLINKTEXT:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.partialLinkText(locatorValue)));
-
-			break;
-		default:
-			element = (new WebDriverWait(driver, wait))
-					.until(ExpectedConditions.presenceOfAllElementsLocatedBy(By.id(locatorValue)));
-
-			break;
-		}
-
-		return element;
+	private List<WebElement> getWebElements(Locator locator, int wait) {
+		return waitEngine.until(ExpectedConditions.presenceOfAllElementsLocatedBy(locator.by()), wait);
 	}
 
 	/**
@@ -410,22 +526,43 @@ public class WebElementsUtil {
 	 */
 
 	public WebElement getElement(LocatorType type, String locatorValue, int wait) {
+		if (type == null)
+			return null;
+		return getElement(Locator.of(type, locatorValue), wait);
+	}
+
+	/**
+	 * return web element if it is present in DOM, this method doesn't check the
+	 * visibility of <br>
+	 * web element on page. For web element visibility refer
+	 * {@link #getVisibleElement(Locator, int)}
+	 *
+	 * @param locator
+	 * @param wait
+	 *            time in sec.
+	 */
+	public WebElement getElement(Locator locator, int wait) {
 		WebElement element = null;
 
-		try {
-			if (type == null)
+		try (OperationMetrics.Sample sample = OperationMetrics.start("getElement", locator)) {
+			if (locator == null)
 				return null;
 
-			element = getWebElement(type, locatorValue, wait);
+			LocatorHealer healer = locatorHealer;
+			element = healer == null ? getWebElement(locator, wait) : getHealingWebElement(healer, locator, wait);
 
 			if (element == null) {
-				System.out.println("got null element. retrying to find element..");
-				element = getWebElement(type, locatorValue, wait);
+				LOG.debug("got null element for {}. retrying to find element..", locator);
+				element = getWebElement(locator, wait);
 			}
 
 			if (element == null) {
-				throw new NullPointerException(
-						"Null. Couldn't find element with " + type.get() + " value :" + locatorValue + ".");
+				throw new NullPointerException("Null. Couldn't find element with " + locator.getType().get()
+						+ " value :" + locator.getValue() + ".");
+			}
+
+			if (resilientElements) {
+				element = new ResilientWebElement(this, locator, null, wait, element);
 			}
 
 		} catch (NoSuchElementException e) {
@@ -436,6 +573,50 @@ public class WebElementsUtil {
 		return element;
 	}
 
+	/**
+	 * return web element which re-locates itself when it goes stale, see
+	 * {@link ResilientWebElement}.
+	 * 
+	 * @param locator
+	 * @param wait
+	 *            time in sec, used for first lookup and when zero wait
+	 *            re-location fails.
+	 * @return element or null if it is not found.
+	 */
+	public ResilientWebElement getResilientElement(Locator locator, int wait) {
+		WebElement element = getElement(locator, wait);
+		if (element == null) {
+			return null;
+		}
+		if (element instanceof ResilientWebElement) {
+			return (ResilientWebElement) element;
+		}
+		return new ResilientWebElement(this, locator, null, wait, element);
+	}
+
+	public ResilientWebElement getResilientElement(LocatorType type, String locatorValue) {
+		return getResilientElement(Locator.of(type, locatorValue), defaultWait());
+	}
+
+	/**
+	 * return child web element which re-locates itself, and its parent when
+	 * parent is a {@link ResilientWebElement}, when it goes stale.
+	 * 
+	 * @param parentElement
+	 * @param childLocatorType
+	 * @param childLocatorValue
+	 * @return
+	 */
+	public ResilientWebElement getResilientElement(WebElement parentElement, LocatorType childLocatorType,
+			String childLocatorValue) {
+		Locator childLocator = Locator.of(childLocatorType, childLocatorValue);
+		WebElement element = getElement(parentElement, childLocator);
+		if (element instanceof ResilientWebElement) {
+			return (ResilientWebElement) element;
+		}
+		return new ResilientWebElement(this, childLocator, parentElement, defaultWait(), element);
+	}
+
 	/**
 	 * return List of web element if it is present in DOM, this method doesn't
 	 * check the visibility of <br>
@@ -449,22 +630,38 @@ public class WebElementsUtil {
 	 * @return
 	 */
 	public List<WebElement> getElements(LocatorType type, String locatorValue, int wait) {
+		if (type == null)
+			return null;
+		return getElements(Locator.of(type, locatorValue), wait);
+	}
+
+	/**
+	 * return List of web element if it is present in DOM, this method doesn't
+	 * check the visibility of <br>
+	 * web element on page. For web element visibility refer
+	 * {@link #getVisibleElements(Locator, int)}
+	 *
+	 * @param locator
+	 * @param wait
+	 * @return
+	 */
+	public List<WebElement> getElements(Locator locator, int wait) {
 		List<WebElement> element = null;
 
-		try {
-			if (type == null)
+		try (OperationMetrics.Sample sample = OperationMetrics.start("getElements", locator)) {
+			if (locator == null)
 				return null;
 
-			element = getWebElements(type, locatorValue, wait);
+			element = getWebElements(locator, wait);
 
 			if (element == null) {
-				System.out.println("got null element. retrying to find element..");
-				element = getWebElements(type, locatorValue, wait);
+				LOG.debug("got null elements for {}. retrying to find elements..", locator);
+				element = getWebElements(locator, wait);
 			}
 
 			if (element == null) {
-				throw new NullPointerException(
-						"Null. Couldn't find element with " + type.get() + " value :" + locatorValue + ".");
+				throw new NullPointerException("Null. Couldn't find element with " + locator.getType().get()
+						+ " value :" + locator.getValue() + ".");
 			}
 
 		} catch (NoSuchElementException e) {
@@ -481,17 +678,88 @@ public class WebElementsUtil {
 	 * @param driver
 	 */
 	public void turnOffImplicitWaits(WebDriver driver) {
-		driver.manage().timeouts().implicitlyWait(0, TimeUnit.SECONDS);
+		if (driver == this.driver) {
+			setImplicitWait(0);
+		} else {
+			driver.manage().timeouts().implicitlyWait(0, TimeUnit.SECONDS);
+		}
 	}
 
 	/**
-	 * It will set the implicit wait to 30 sec. Use only when you are using
-	 * {@code turnOffImplicitWaits} method.
+	 * It will set the implicit wait to find timeout of timeout profile. Use only when
+	 * you are using {@code turnOffImplicitWaits} method.
 	 * 
 	 * @param driver
 	 */
 	public void turnOnImplicitWaits(WebDriver driver) {
-		driver.manage().timeouts().implicitlyWait(DEFAULT_WAIT, TimeUnit.SECONDS);
+		if (driver == this.driver) {
+			setImplicitWait(defaultWait());
+		} else {
+			driver.manage().timeouts().implicitlyWait(defaultWait(), TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * set implicit wait of driver. Current value is tracked, so no command is
+	 * sent to driver if it is already set to waitInSec.
+	 * <p>
+	 * No wait lookups turn implicit wait off and then restore the wait set
+	 * here. When none was set they restore find timeout of the
+	 * {@link #getTimeoutProfile() timeout profile}, like this util always did,
+	 * or leave it off when the profile is
+	 * {@link TimeoutProfile#isExplicitWaitsOnly() explicit waits only}. Only
+	 * then does a no wait lookup cost no extra command.
+	 * 
+	 * @param waitInSec
+	 */
+	public void setImplicitWait(int waitInSec) {
+		if (waitInSec != implicitWaitSec) {
+			OperationMetrics.command();
+			driver.manage().timeouts().implicitlyWait(waitInSec, TimeUnit.SECONDS);
+			implicitWaitSec = waitInSec;
+		}
+	}
+
+	/**
+	 * @return implicit wait of driver as tracked by this util, -1 if it was
+	 *         never set through this util.
+	 */
+	int getImplicitWait() {
+		return implicitWaitSec;
+	}
+
+	/**
+	 * @return implicit wait restored when none was set through this util.
+	 */
+	int defaultImplicitWait() {
+		return timeoutProfile.isExplicitWaitsOnly() ? 0 : defaultWait();
+	}
+
+	/**
+	 * override implicit wait until returned scope is closed, use with
+	 * try-with-resources. Closing restores the wait set with
+	 * {@link #setImplicitWait(int)}; if none was set, find timeout of timeout
+	 * profile or 0 when the profile is explicit waits only.
+	 * 
+	 * @param waitInSec
+	 * @return
+	 */
+	public ImplicitWaitScope implicitWait(int waitInSec) {
+		int previousWaitSec = implicitWaitSec;
+		ImplicitWaitScope scope = new ImplicitWaitScope(this,
+				previousWaitSec < 0 ? defaultImplicitWait() : previousWaitSec);
+		setImplicitWait(waitInSec);
+		return scope;
+	}
+
+	/**
+	 * turn off implicit wait until returned scope is closed, use with
+	 * try-with-resources.
+	 * 
+	 * @return
+	 */
+	public ImplicitWaitScope noImplicitWait() {
+		return implicitWait(0);
 	}
 
 	/**
@@ -502,40 +770,249 @@ public class WebElementsUtil {
 	 * @return
 	 */
 	public WebElement getElementNoImplicitWait(LocatorType t, String locatorValue) {
-		turnOffImplicitWaits(driver);
-		WebElement element = getElementNoCheck(t, locatorValue);
-		turnOnImplicitWaits(driver);
-		return element;
+		return getElementNoImplicitWait(Locator.of(t, locatorValue));
+	}
+
+	/**
+	 * find element with no implicit wait. Costs a single command when timeout
+	 * profile is {@link TimeoutProfile#isExplicitWaitsOnly() explicit waits
+	 * only} and no implicit wait was set with {@link #setImplicitWait(int)},
+	 * three otherwise.
+	 * 
+	 * @param locator
+	 * @return
+	 */
+	public WebElement getElementNoImplicitWait(Locator locator) {
+		return getElementNoCheck(locator);
+	}
+
+	/**
+	 * find elements with no implicit wait.
+	 * 
+	 * @param t
+	 * @param locatorValue
+	 * @return
+	 */
+	public List<WebElement> getElementsNoImplicitWait(LocatorType t, String locatorValue) {
+		return getElementsNoImplicitWait(Locator.of(t, locatorValue));
+	}
+
+	/**
+	 * find elements with no implicit wait.
+	 * 
+	 * @param locator
+	 * @return
+	 */
+	public List<WebElement> getElementsNoImplicitWait(Locator locator) {
+		try (ImplicitWaitScope scope = noImplicitWait()) {
+			return getElementsNoChecks(locator);
+		}
+	}
+
+	/**
+	 * find element with the first of alternative locators that matches, e.g.
+	 * for A/B variants of a page. All locators are tried in page in one call
+	 * per probe, so a fallback costs no extra round-trip and no timeout of its
+	 * own.
+	 * 
+	 * @param wait
+	 *            time in sec to wait for any locator to match.
+	 * @param locators
+	 *            alternatives in order of preference.
+	 * @return match saying which locator won, or null if none matched within
+	 *         wait.
+	 */
+	public LocatorMatch findFirst(int wait, Locator... locators) {
+		if (locators.length == 0) {
+			throw new IllegalArgumentException("No locator given");
+		}
+		try (OperationMetrics.Sample sample = OperationMetrics.start("findFirst", locators[0])) {
+			return waitEngine.until(d -> findFirstNow(locators), wait);
+		} catch (TimeoutException e) {
+			LOG.debug("none of {} matched within {} sec", Arrays.asList(locators), wait);
+			return null;
+		}
+	}
+
+	/**
+	 * find element with the first of alternative locators that matches,
+	 * without waiting.
+	 * 
+	 * @param locators
+	 *            alternatives in order of preference.
+	 * @return match saying which locator won, or null if none matches.
+	 */
+	public LocatorMatch findFirstNow(Locator... locators) {
+		if (supportsScripts()) {
+			List<List<String>> arg = new ArrayList<List<String>>(locators.length);
+			for (Locator locator : locators) {
+				arg.add(Arrays.asList(locator.getType().name(), locator.getValue()));
+			}
+			List<?> result = (List<?>) runScript(JsScripts.FIND_FIRST, arg);
+			if (result == null) {
+				return null;
+			}
+			int index = ((Number) result.get(0)).intValue();
+			return new LocatorMatch(locators[index], index, (WebElement) result.get(1));
+		}
+		try (ImplicitWaitScope scope = noImplicitWait()) {
+			for (int i = 0; i < locators.length; i++) {
+				OperationMetrics.command();
+				List<WebElement> found = driver.findElements(locators[i].by());
+				if (!found.isEmpty()) {
+					return new LocatorMatch(locators[i], i, found.get(0));
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * return WebElement if it is present in DOM otherwise null, without any
+	 * wait.
+	 * @param t
+	 * @param locatorValue
+	 * @return
+	 */
+	public WebElement isElementLocated(LocatorType t, String locatorValue) {
+		return isElementLocated(Locator.of(t, locatorValue));
+	}
+
+	/**
+	 * return WebElement if it is present in DOM otherwise null, without any
+	 * wait. Costs a single command.
+	 * 
+	 * @param locator
+	 * @return
+	 */
+	public WebElement isElementLocated(Locator locator) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("isElementLocated", locator)) {
+			LocatorMatch match = findFirstNow(locator);
+			return match == null ? null : match.getElement();
+		}
+	}
+
+	/**
+	 * check presence with a single DOM query, without implicit or explicit
+	 * wait.
+	 * 
+	 * @param t
+	 * @param locatorValue
+	 * @return true if locator matches an element right now.
+	 */
+	public boolean isPresentNow(LocatorType t, String locatorValue) {
+		return isElementLocated(Locator.of(t, locatorValue)) != null;
+	}
+
+	public boolean isPresentNow(Locator locator) {
+		return isElementLocated(locator) != null;
+	}
+
+	/**
+	 * assert that locator matches nothing right now, with a single DOM query.
+	 * 
+	 * @param t
+	 * @param locatorValue
+	 * @throws AssertionError
+	 *             if an element is present.
+	 */
+	public void assertAbsent(LocatorType t, String locatorValue) {
+		assertAbsent(Locator.of(t, locatorValue));
+	}
+
+	public void assertAbsent(Locator locator) {
+		if (isPresentNow(locator)) {
+			throw new AssertionError("Expected no element with " + locator + " but found one");
+		}
 	}
 
 	/**
-	 * find elements with no implicit wait.
+	 * assert that locator matches nothing for stableMs in a row, e.g. to make
+	 * sure an error message doesn't show up shortly after an action.
+	 * 
+	 * @param locator
+	 * @param stableMs
+	 *            time in ms element must stay absent.
+	 * @param waitInSec
+	 *            max time in sec to wait for such a period.
+	 * @throws AssertionError
+	 *             if element is present during whole wait.
+	 */
+	public void assertAbsent(Locator locator, long stableMs, int waitInSec) {
+		if (!waitUntilAbsent(locator, stableMs, waitInSec)) {
+			throw new AssertionError("Element with " + locator + " did not stay absent for " + stableMs
+					+ " ms within " + waitInSec + " sec");
+		}
+	}
+
+	/**
+	 * wait until locator has matched nothing for stableMs in a row. Checked in
+	 * page on every DOM mutation when driver supports scripts, polled
+	 * otherwise.
+	 * 
+	 * @param locator
+	 * @param stableMs
+	 *            time in ms element must stay absent.
+	 * @param waitInSec
+	 *            max time in sec to wait for such a period.
+	 * @return true if element stayed absent for stableMs.
+	 */
+	public boolean waitUntilAbsent(Locator locator, long stableMs, int waitInSec) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("waitUntilAbsent", locator)) {
+			if (supportsScripts()) {
+				Object absent = runAsyncScript(JsScripts.WAIT_FOR_ABSENT, waitInSec, locator.getType().name(),
+						locator.getValue(), stableMs, waitInSec * 1000L);
+				return Boolean.TRUE.equals(absent);
+			}
+			long[] absentSince = { -1 };
+			try {
+				return waitEngine.until(d -> {
+					long now = System.nanoTime();
+					if (isPresentNow(locator)) {
+						absentSince[0] = -1;
+						return false;
+					}
+					if (absentSince[0] < 0) {
+						absentSince[0] = now;
+					}
+					return now - absentSince[0] >= stableMs * 1_000_000L;
+				}, waitInSec);
+			} catch (TimeoutException e) {
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * default findElement
 	 * 
 	 * @param t
 	 * @param locatorValue
 	 * @return
 	 */
-	public List<WebElement> getElementsNoImplicitWait(LocatorType t, String locatorValue) {
-		turnOffImplicitWaits(driver);
-		List<WebElement> elements = getElementsNoChecks(t, locatorValue);
-		turnOnImplicitWaits(driver);
-		return elements;
+	public WebElement getElement(WebElement parentElement, LocatorType childLocatorTyp, String childLocatorValue) {
+		return getElement(parentElement, Locator.of(childLocatorTyp, childLocatorValue));
 	}
-	
+
 	/**
-	 * return WebElement if it is present in DOM otherwise null.
-	 * @param t
-	 * @param locatorValue
+	 * default findElement
+	 * 
+	 * @param parentElement
+	 * @param childLocator
 	 * @return
 	 */
-	public WebElement isElementLocated(LocatorType t, String locatorValue) {
-		try {
-			return getElementNoCheck(t, locatorValue);
-		}catch(NoSuchElementException e) {
-			return null;
+	public WebElement getElement(WebElement parentElement, Locator childLocator) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("getChildElement", childLocator);
+				ImplicitWaitScope scope = noImplicitWait()) {
+			OperationMetrics.command();
+			WebElement element = parentElement.findElement(childLocator.by());
+			if (resilientElements) {
+				element = new ResilientWebElement(this, childLocator, parentElement, defaultWait(), element);
+			}
+			return element;
 		}
 	}
-	
+
 	/**
 	 * default findElement
 	 * 
@@ -543,97 +1020,22 @@ public class WebElementsUtil {
 	 * @param locatorValue
 	 * @return
 	 */
-	public WebElement getElement(WebElement parentElement, LocatorType childLocatorTyp, String childLocatorValue) {
-		turnOffImplicitWaits(driver);
-		WebElement element = null;
-
-		switch (childLocatorTyp) {
-		case ID:
-			element = parentElement.findElement(By.id(childLocatorValue));
-			break;
-		case CLASSNAME:
-			element = parentElement.findElement(By.className(childLocatorValue));
-			break;
-
-		case XPATH:
-			element = parentElement.findElement(By.xpath(childLocatorValue));
-			break;
-		case CSSSELECTOR:
-			element = parentElement.findElement(By.cssSelector(childLocatorValue));
-			break;
-
-		case NAME:
-			element = parentElement.findElement(By.name(childLocatorValue));
-			break;
-
-		case TAGNAME:
-			element = parentElement.findElement(By.tagName(childLocatorValue));
-			break;
-
-		case LINKTEXT:
-			element = parentElement.findElement(By.linkText(childLocatorValue));
-			break;
-
-		case PARTIALLINKTEXT:
-			element = parentElement.findElement(By.partialLinkText(childLocatorValue));
-			break;
-		default:
-			element = parentElement.findElement(By.id(childLocatorValue));
-			break;
-		}
-		turnOnImplicitWaits(driver);
-
-		return element;
+	public WebElement getElementNoCheck(LocatorType t, String locatorValue) {
+		return getElementNoCheck(Locator.of(t, locatorValue));
 	}
 
 	/**
 	 * default findElement
 	 * 
-	 * @param t
-	 * @param locatorValue
+	 * @param locator
 	 * @return
 	 */
-	public WebElement getElementNoCheck(LocatorType t, String locatorValue) {
-		turnOffImplicitWaits(driver);
-		WebElement element = null;
-
-		switch (t) {
-		case ID:
-			element = driver.findElement(By.id(locatorValue));
-			break;
-		case CLASSNAME:
-			element = driver.findElement(By.className(locatorValue));
-			break;
-
-		case XPATH:
-			element = driver.findElement(By.xpath(locatorValue));
-			break;
-		case CSSSELECTOR:
-			element = driver.findElement(By.cssSelector(locatorValue));
-			break;
-
-		case NAME:
-			element = driver.findElement(By.name(locatorValue));
-			break;
-
-		case TAGNAME:
-			element = driver.findElement(By.tagName(locatorValue));
-			break;
-
-		case LINKTEXT:
-			element = driver.findElement(By.linkText(locatorValue));
-			break;
-
-		case PARTIALLINKTEXT:
-			element = driver.findElement(By.partialLinkText(locatorValue));
-			break;
-		default:
-			element = driver.findElement(By.id(locatorValue));
-			break;
-		}
-		turnOnImplicitWaits(driver);
-
-		return element;
+	public WebElement getElementNoCheck(Locator locator) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("getElementNoCheck", locator);
+				ImplicitWaitScope scope = noImplicitWait()) {
+			OperationMetrics.command();
+			return driver.findElement(locator.by());
+		}
 	}
 	
 	
@@ -647,92 +1049,89 @@ public class WebElementsUtil {
 	 * @return
 	 */
 	public List<WebElement> getElementsNoChecks(LocatorType t, String locatorValue) {
-		List<WebElement> element = null;
+		return getElementsNoChecks(Locator.of(t, locatorValue));
+	}
 
-		switch (t) {
-		case ID:
-			element = driver.findElements(By.id(locatorValue));
-			break;
-		case CLASSNAME:
-			element = driver.findElements(By.className(locatorValue));
-			break;
-
-		case XPATH:
-			element = driver.findElements(By.xpath(locatorValue));
-			break;
-		case CSSSELECTOR:
-			element = driver.findElements(By.cssSelector(locatorValue));
-			break;
-
-		case NAME:
-			element = driver.findElements(By.name(locatorValue));
-			break;
-
-		case TAGNAME:
-			element = driver.findElements(By.tagName(locatorValue));
-			break;
-
-		case LINKTEXT:
-			element = driver.findElements(By.linkText(locatorValue));
-			break;
-
-		case PARTIALLINKTEXT:
-			element = driver.findElements(By.partialLinkText(locatorValue));
-			break;
-		default:
-			element = driver.findElements(By.id(locatorValue));
-			break;
+	/**
+	 * default findElements
+	 * 
+	 * @param locator
+	 * @return
+	 */
+	public List<WebElement> getElementsNoChecks(Locator locator) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("getElementsNoChecks", locator)) {
+			OperationMetrics.command();
+			return driver.findElements(locator.by());
 		}
-
-		return element;
 	}
-
 	/**
-	 * {@link #getElement(LocatorType, String, int)} with {@link #DEFAULT_WAIT}
-	 * = {@value #DEFAULT_WAIT}
+	 * {@link #getElement(LocatorType, String, int)} with find timeout
+	 * of {@link #getTimeoutProfile() timeout profile}
 	 * 
 	 * @param locator
 	 * @param locatorValue
 	 * @return
 	 */
 	public WebElement getElement(LocatorType locator, String locatorValue) {
-		return getElement(locator, locatorValue, DEFAULT_WAIT);
+		return getElement(locator, locatorValue, defaultWait());
+	}
+
+	/**
+	 * {@link #getElement(Locator, int)} with find timeout of
+	 * {@link #getTimeoutProfile() timeout profile}
+	 * 
+	 * @param locator
+	 * @return
+	 */
+	public WebElement getElement(Locator locator) {
+		return getElement(locator, defaultWait());
 	}
 
 	public WebElement getElementById(String locatorValue) {
-		return getElement(LocatorType.ID, locatorValue, DEFAULT_WAIT);
+		return getElement(LocatorType.ID, locatorValue, defaultWait());
 	}
 
 	public WebElement getElementByCSS(String locatorValue) {
-		return getElement(LocatorType.CSSSELECTOR, locatorValue, DEFAULT_WAIT);
+		return getElement(LocatorType.CSSSELECTOR, locatorValue, defaultWait());
 	}
 
 	public WebElement getElementByXpath(String locatorValue) {
-		return getElement(LocatorType.XPATH, locatorValue, DEFAULT_WAIT);
+		return getElement(LocatorType.XPATH, locatorValue, defaultWait());
 	}
 
 	/**
-	 * {@link #getElements(LocatorType, String, int)} with {@link #DEFAULT_WAIT}
-	 * = {@value #DEFAULT_WAIT}
+	 * {@link #getElements(LocatorType, String, int)} with find timeout
+	 * of {@link #getTimeoutProfile() timeout profile}
 	 * 
 	 * @param locator
 	 * @param locatorValue
 	 * @return
 	 */
 	public List<WebElement> getElements(LocatorType locator, String locatorValue) {
-		return getElements(locator, locatorValue, DEFAULT_WAIT);
+		return getElements(locator, locatorValue, defaultWait());
+	}
+
+	/**
+	 * {@link #getElements(Locator, int)} with find timeout of
+	 * {@link #getTimeoutProfile() timeout profile}
+	 * 
+	 * @param locator
+	 * @return
+	 */
+	public List<WebElement> getElements(Locator locator) {
+		return getElements(locator, defaultWait());
 	}
 
 	public List<WebElement> getElementsById(String locatorValue) {
-		return getElements(LocatorType.ID, locatorValue, DEFAULT_WAIT);
+		return getElements(LocatorType.ID, locatorValue, defaultWait());
 	}
 
 	public List<WebElement> getElementsByCSS(String locatorValue) {
-		return getElements(LocatorType.CSSSELECTOR, locatorValue, DEFAULT_WAIT);
+		return getElements(LocatorType.CSSSELECTOR, locatorValue, defaultWait());
 	}
 
 	public List<WebElement> getElementsByXpath(String locatorValue) {
-		return getElements(LocatorType.XPATH, locatorValue, DEFAULT_WAIT);
+		return getElements(LocatorType.XPATH, locatorValue, defaultWait());
 	}
 
 	/**
@@ -746,8 +1145,10 @@ public class WebElementsUtil {
 	 * @return
 	 */
 	public String getText(LocatorType locatorType, String locatorValue, int waitInSec) {
-		try {
-			return getElement(locatorType, locatorValue, waitInSec).getText();
+		try (OperationMetrics.Sample sample = OperationMetrics.start("getText", locatorType, locatorValue)) {
+			WebElement element = getElement(locatorType, locatorValue, waitInSec);
+			OperationMetrics.command();
+			return element.getText();
 		} catch (Exception e) {
 			LOG.error(String.format("Error in getting text from %s element of type %s", locatorValue,
 					locatorType.toString()), e);
@@ -756,15 +1157,15 @@ public class WebElementsUtil {
 	}
 
 	public String getTextById(String locatorValue) {
-		return getText(LocatorType.ID, locatorValue, DEFAULT_WAIT);
+		return getText(LocatorType.ID, locatorValue, defaultWait());
 	}
 
 	public String getTextByCSS(String locatorValue) {
-		return getElement(LocatorType.CSSSELECTOR, locatorValue, DEFAULT_WAIT).getText();
+		return getElement(LocatorType.CSSSELECTOR, locatorValue, defaultWait()).getText();
 	}
 
 	public String getTextByXpath(String locatorValue) {
-		return getElement(LocatorType.XPATH, locatorValue, DEFAULT_WAIT).getText();
+		return getElement(LocatorType.XPATH, locatorValue, defaultWait()).getText();
 	}
 
 	/**
@@ -778,7 +1179,10 @@ public class WebElementsUtil {
 	 * @return
 	 */
 	public void clickElement(LocatorType locatorType, String locatorValue, int waitInSec) {
-		getElement(locatorType, locatorValue, waitInSec).click();
+		try (OperationMetrics.Sample sample = OperationMetrics.start("clickElement", locatorType, locatorValue)) {
+			awaitAppIdleIfEnabled();
+			clickWhenActionable(Locator.of(locatorType, locatorValue), waitInSec);
+		}
 	}
 
 	/**
@@ -791,47 +1195,108 @@ public class WebElementsUtil {
 	 * @return
 	 */
 	public void clickElement(LocatorType locatorType, String locatorValue) {
-		getElement(locatorType, locatorValue, DEFAULT_WAIT).click();
+		clickElement(locatorType, locatorValue, defaultWait());
 	}
 
 	public void clickElementById(String locatorValue) {
-		getElement(LocatorType.ID, locatorValue, DEFAULT_WAIT).click();
+		clickElement(LocatorType.ID, locatorValue, defaultWait());
 	}
 
 	public void clickElementByCSS(String locatorValue) {
-		getElement(LocatorType.CSSSELECTOR, locatorValue, DEFAULT_WAIT).click();
+		clickElement(LocatorType.CSSSELECTOR, locatorValue, defaultWait());
 	}
 
 	public void clickElementByXpath(String locatorValue) {
-		getElement(LocatorType.XPATH, locatorValue, DEFAULT_WAIT).click();
+		clickElement(LocatorType.XPATH, locatorValue, defaultWait());
 	}
 
 	public void clickCheckBoxById(String elementId) {
-		String css = "#"+elementId+" +ins";
-		WebElement element = getElement(LocatorType.CSSSELECTOR, css, DEFAULT_WAIT);
-		scrollWebElementIntoView(element);
-		element.click();
+		clickStyledInput("clickCheckBoxById", "#"+elementId+" +ins");
 	}
 	
     public void clickRadioById(String elementId) {
-    	String css = "#"+elementId+" +ins";
-    	WebElement element = getElement(LocatorType.CSSSELECTOR, css, DEFAULT_WAIT);
-		scrollWebElementIntoView(element);
-		element.click();
+		clickStyledInput("clickRadioById", "#"+elementId+" +ins");
 	}
     
     public void clickCheckBoxByCSS(String css) {
-		css = css+" +ins";
-		WebElement element = getElement(LocatorType.CSSSELECTOR, css, DEFAULT_WAIT);
-		scrollWebElementIntoView(element);
-		element.click();
+		clickStyledInput("clickCheckBoxByCSS", css+" +ins");
 	}
 	
     public void clickRadioByCSS(String css) {
-    	css = css+" +ins";
-    	WebElement element = getElement(LocatorType.CSSSELECTOR, css, DEFAULT_WAIT);
-		scrollWebElementIntoView(element);
-		element.click();
+		clickStyledInput("clickRadioByCSS", css+" +ins");
+	}
+
+	/**
+	 * click the styled &lt;ins&gt; sibling of checkbox/radio input.
+	 */
+	private void clickStyledInput(String method, String css) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start(method, LocatorType.CSSSELECTOR, css)) {
+			awaitAppIdleIfEnabled();
+			clickWhenActionable(Locator.css(css), defaultWait());
+		}
+	}
+
+	/**
+	 * locate, wait until actionable and scroll into view in one call, see
+	 * {@link JsScripts#ACTIONABLE_ELEMENT}, then click natively. Falls back to
+	 * native find when driver can't run scripts, or when element is missing
+	 * and a {@link LocatorHealer} may heal its locator within the time left.
+	 * 
+	 * @param locator
+	 * @param waitInSec
+	 * @throws TimeoutException
+	 *             if element is not found within wait.
+	 * @throws ElementNotInteractableException
+	 *             if element stays hidden or disabled.
+	 * @throws ElementClickInterceptedException
+	 *             if element stays covered by another element.
+	 */
+	private void clickWhenActionable(Locator locator, int waitInSec) {
+		long start = System.nanoTime();
+		String status = null;
+		if (supportsScripts()) {
+			WebElement element = null;
+			try {
+				List<?> result = (List<?>) runAsyncScript(JsScripts.ACTIONABLE_ELEMENT, waitInSec,
+						locator.getType().name(), locator.getValue(), waitInSec * 1000L);
+				status = (String) result.get(0);
+				element = (WebElement) result.get(1);
+			} catch (WebDriverException e) {
+				LOG.debug("in page actionability check of {} failed, falling back to native click", locator, e);
+			}
+			if (element != null) {
+				try {
+					OperationMetrics.command();
+					element.click();
+					return;
+				} catch (StaleElementReferenceException e) {
+					LOG.debug("{} was re-rendered before click, clicking it natively", locator, e);
+					status = null;
+				}
+			}
+		}
+		if (status == null || status.startsWith("error") || ("missing".equals(status) && locatorHealer != null)) {
+			int remaining = Math.max(0, waitInSec - (int) TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+			WebElement element = getElement(locator, remaining);
+			if (element == null) {
+				throw new NoSuchElementException("Couldn't find element with " + locator);
+			}
+			if (supportsScripts()) {
+				scrollWebElementIntoView(element);
+			}
+			OperationMetrics.command();
+			element.click();
+			return;
+		}
+		if ("missing".equals(status)) {
+			throw new TimeoutException("Element with " + locator + " not found within " + waitInSec + " sec");
+		}
+		if (status.startsWith("obscured")) {
+			throw new ElementClickInterceptedException("Element with " + locator + " is not clickable, it is "
+					+ status + " after " + waitInSec + " sec");
+		}
+		throw new ElementNotInteractableException("Element with " + locator + " is " + status + " after "
+				+ waitInSec + " sec");
 	}
 
 
@@ -846,21 +1311,32 @@ public class WebElementsUtil {
 	 * @return
 	 */
 	public void sendKeys(LocatorType locatorType, String locatorValue, String text, int waitInSec) {
-		WebElement element = getElement(locatorType, locatorValue, waitInSec);
-		element.clear();
-		element.sendKeys(text);
+		try (OperationMetrics.Sample sample = OperationMetrics.start("sendKeys", locatorType, locatorValue)) {
+			awaitAppIdleIfEnabled();
+			WebElement element = getElement(locatorType, locatorValue, waitInSec);
+			OperationMetrics.command();
+			element.clear();
+			OperationMetrics.command();
+			element.sendKeys(text);
+		}
 	}
 
 	public void sendKeys(LocatorType locatorType, String locatorValue, String text) {
-		WebElement element = getElement(locatorType, locatorValue, DEFAULT_WAIT);
-		element.clear();
-		element.sendKeys(text);
+		sendKeys(locatorType, locatorValue, text, defaultWait());
 	}
 
 	public void sendKeysById(String locatorValue, String text) {
-		WebElement element = getElement(LocatorType.ID, locatorValue, DEFAULT_WAIT);
-		element.clear();
-		element.sendKeys(text);
+		sendKeys(LocatorType.ID, locatorValue, text, defaultWait());
+	}
+
+	/**
+	 * start a batch of form operations, see {@link FormBatch}. Batch is flushed
+	 * with {@link FormBatch#flush()}.
+	 * 
+	 * @return
+	 */
+	public FormBatch formBatch() {
+		return new FormBatch(this);
 	}
 
 	// start dropdown related functions.
@@ -874,10 +1350,13 @@ public class WebElementsUtil {
 	 * @param text
 	 */
 	public void selectDropDownByText(LocatorType type, String locatorValue, int wait, String text) {
-		WebElement el = getElement(type, locatorValue, wait);
-		if (el != null) {
-			Select dropdown = new Select(el);
-			dropdown.selectByVisibleText(text);
+		try (OperationMetrics.Sample sample = OperationMetrics.start("selectDropDownByText", type, locatorValue)) {
+			awaitAppIdleIfEnabled();
+			WebElement el = getElement(type, locatorValue, wait);
+			if (el != null) {
+				Select dropdown = select(el);
+				dropdown.selectByVisibleText(text);
+			}
 		}
 	}
 
@@ -889,11 +1368,7 @@ public class WebElementsUtil {
 	 * @param text
 	 */
 	public void selectDropDownByText(LocatorType type, String locatorValue, String text) {
-		WebElement el = getElement(type, locatorValue, DEFAULT_WAIT);
-		if (el != null) {
-			Select dropdown = new Select(el);
-			dropdown.selectByVisibleText(text);
-		}
+		selectDropDownByText(type, locatorValue, defaultWait(), text);
 	}
 
 	/**
@@ -904,11 +1379,7 @@ public class WebElementsUtil {
 	 * @param text
 	 */
 	public void selectDropDownByTextID(String locatorValue, String text) {
-		WebElement el = getElement(LocatorType.ID, locatorValue, DEFAULT_WAIT);
-		if (el != null) {
-			Select dropdown = new Select(el);
-			dropdown.selectByVisibleText(text);
-		}
+		selectDropDownByText(LocatorType.ID, locatorValue, defaultWait(), text);
 	}
 
 	/**
@@ -920,10 +1391,13 @@ public class WebElementsUtil {
 	 * @param text
 	 */
 	public void selectDropDownByValue(LocatorType type, String locatorValue, int wait, String text) {
-		WebElement el = getElement(type, locatorValue, wait);
-		if (el != null) {
-			Select dropdown = new Select(el);
-			dropdown.selectByValue(text);
+		try (OperationMetrics.Sample sample = OperationMetrics.start("selectDropDownByValue", type, locatorValue)) {
+			awaitAppIdleIfEnabled();
+			WebElement el = getElement(type, locatorValue, wait);
+			if (el != null) {
+				Select dropdown = select(el);
+				dropdown.selectByValue(text);
+			}
 		}
 	}
 
@@ -935,11 +1409,7 @@ public class WebElementsUtil {
 	 * @param text
 	 */
 	public void selectDropDownByValue(LocatorType type, String locatorValue, String text) {
-		WebElement el = getElement(type, locatorValue, DEFAULT_WAIT);
-		if (el != null) {
-			Select dropdown = new Select(el);
-			dropdown.selectByValue(text);
-		}
+		selectDropDownByValue(type, locatorValue, defaultWait(), text);
 	}
 
 	/**
@@ -951,11 +1421,7 @@ public class WebElementsUtil {
 	 * @param text
 	 */
 	public void selectDropDownByValueID(String locatorValue, String text) {
-		WebElement el = getElement(LocatorType.ID, locatorValue, DEFAULT_WAIT);
-		if (el != null) {
-			Select dropdown = new Select(el);
-			dropdown.selectByValue(text);
-		}
+		selectDropDownByValue(LocatorType.ID, locatorValue, defaultWait(), text);
 	}
 
 	/**
@@ -988,13 +1454,55 @@ public class WebElementsUtil {
 		selectDropDownByValueID(locatorValue, modvalue);
 	}
 	
-	public List<String> getSelectOptions(LocatorType locatorType, String selectLocatorValue) {
-		WebElement el = getElement(locatorType, selectLocatorValue, DEFAULT_WAIT);
-		if (el != null) {
-			Select dropdown = new Select(el);
-			return dropdown.getOptions().parallelStream().map(opt -> opt.getText().trim()).collect(Collectors.toList());
+	/**
+	 * Select counting its commands in {@link OperationMetrics}.
+	 */
+	private static Select select(WebElement element) {
+		return new Select(OperationMetrics.counted(element));
+	}
+
+	/**
+	 * read text, value, selected and disabled state of all options of a
+	 * dropdown in single script call.
+	 * 
+	 * @param locatorType
+	 * @param selectLocatorValue
+	 * @return snapshot of options, {@link DropdownSnapshot#EMPTY} if select
+	 *         element is not found.
+	 */
+	public DropdownSnapshot getDropdownSnapshot(LocatorType locatorType, String selectLocatorValue) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("getDropdownSnapshot",
+				locatorType, selectLocatorValue)) {
+			WebElement el = getElement(locatorType, selectLocatorValue, defaultWait());
+			if (el == null) {
+				return DropdownSnapshot.EMPTY;
+			}
+			return getDropdownSnapshot(el);
 		}
-		return Collections.emptyList();
+	}
+
+	/**
+	 * read text, value, selected and disabled state of all options of given
+	 * select element in single script call.
+	 * 
+	 * @param selectElement
+	 * @return
+	 */
+	public DropdownSnapshot getDropdownSnapshot(WebElement selectElement) {
+		if (supportsScripts()) {
+			Object rows = runScript(JsScripts.READ_SELECT_OPTIONS, selectElement);
+			return DropdownSnapshot.fromScriptResult((List<?>) rows);
+		}
+		List<DropdownSnapshot.Option> options = new ArrayList<DropdownSnapshot.Option>();
+		for (WebElement opt : select(selectElement).getOptions()) {
+			options.add(new DropdownSnapshot.Option(opt.getText().trim(), opt.getAttribute("value"), opt.isSelected(),
+					!opt.isEnabled()));
+		}
+		return new DropdownSnapshot(options);
+	}
+
+	public List<String> getSelectOptions(LocatorType locatorType, String selectLocatorValue) {
+		return getDropdownSnapshot(locatorType, selectLocatorValue).getTexts();
 	}
 
 	/**
@@ -1028,12 +1536,7 @@ public class WebElementsUtil {
 	}
 	
 	public List<String> getSelectOptionsValue(LocatorType locatorType, String selectLocatorValue) {
-		WebElement el = getElement(locatorType, selectLocatorValue, DEFAULT_WAIT);
-		if (el != null) {
-			Select dropdown = new Select(el);
-			return dropdown.getOptions().stream().map(opt -> opt.getAttribute("value")).collect(Collectors.toList());
-		}
-		return Collections.emptyList();
+		return getDropdownSnapshot(locatorType, selectLocatorValue).getValues();
 	}
 
 	/**
@@ -1073,9 +1576,10 @@ public class WebElementsUtil {
 	 * @param valueToSelect
 	 */
 	public void multiSelectDropDownByValue(LocatorType type, String locatorValue, List<String> valueToSelect) {
-		WebElement el = getElement(type, locatorValue, DEFAULT_WAIT);
+		awaitAppIdleIfEnabled();
+		WebElement el = getElement(type, locatorValue, defaultWait());
 		if (el != null) {
-			Select dropdown = new Select(el);
+			Select dropdown = select(el);
 			el.sendKeys(Keys.LEFT_CONTROL);
 			for (String value : valueToSelect)
 				dropdown.selectByValue(value);
@@ -1089,15 +1593,7 @@ public class WebElementsUtil {
 	 * @return
 	 */
 	public List<String> getDropDownSelectedOptions(LocatorType locatorType, String locatorValue){
-		WebElement el = getElement(locatorType, locatorValue, DEFAULT_WAIT);
-		List<String> selectedOptions = new ArrayList<String>();
-		if (el != null) {
-			Select dropdown = new Select(el);
-			for(WebElement sopt: dropdown.getAllSelectedOptions()) {
-				selectedOptions.add(sopt.getText());
-			}
-		}
-		return selectedOptions;
+		return new ArrayList<String>(getDropdownSnapshot(locatorType, locatorValue).getSelectedTexts());
 	}
 	
 	/**
@@ -1107,10 +1603,9 @@ public class WebElementsUtil {
 	 * @return
 	 */
 	public String getDropDownSelectedOption(LocatorType locatorType, String locatorValue){
-		WebElement el = getElement(locatorType, locatorValue, DEFAULT_WAIT);
+		WebElement el = getElement(locatorType, locatorValue, defaultWait());
 		if (el != null) {
-			Select dropdown = new Select(el);
-			return dropdown.getFirstSelectedOption().getText();
+			return getDropdownSnapshot(el).getFirstSelected().getText();
 		}
 		return "";
 	}
@@ -1126,128 +1621,267 @@ public class WebElementsUtil {
 	}
 
 	/**
-	 * Use this only for angular element. This will wait upto 2 min with poll
-	 * interval of 5 sec to web element(that has class attribute 'ng-hide') to
-	 * be hidden.
+	 * Use this only for angular element. This will wait upto hide timeout of
+	 * timeout profile (2 min by default) with its hide poll interval (5 sec by
+	 * default) to web element(that has class attribute 'ng-hide') to be hidden.
 	 * 
 	 * @param maskWrapper
 	 *            web element that contains class ng-hide or ng-show
 	 */
 	public void waitAngularElementToHidden(LocatorType type, String locatorValue) {
-		waitAngularElementToHidden(type, locatorValue, DEFAULT_MAX_WAIT_ELEMENT_TOHIDE);
+		waitAngularElementToHidden(type, locatorValue, timeoutProfile.getHideTimeoutSec());
 	}
 
 	/**
-	 * Use this only for angular element. This will wait upto 2 min with poll
-	 * interval of 5 sec to web element(that has class attribute 'ng-hide') to
-	 * be hidden.
+	 * Use this only for angular element. This will wait upto waitInSec with
+	 * hide poll interval of timeout profile (5 sec by default) to web
+	 * element(that has class attribute 'ng-hide') to be hidden.
 	 * 
 	 * @param maskWrapper
 	 *            web element that contains class ng-hide or ng-show
 	 * @param waitInSec
 	 *            approx wait in sec
+	 * @see #setHideWaitMode(HideWaitMode)
 	 */
 	public void waitAngularElementToHidden(LocatorType type, String locatorValue, int waitInSec) {
-		WebElement maskWrapper = getElement(type, locatorValue);
-		int waitInterval = 5;
-		int MAXCOUNT = waitInSec / waitInterval;
-		int count = 0;
-		String cssclass = maskWrapper.getAttribute("class");
-		System.out.println("0: "+cssclass);
-		while (!cssclass.contains("ng-hide")) {
-			if (count > MAXCOUNT) {
-				break;
+		try (OperationMetrics.Sample sample = OperationMetrics.start("waitAngularElementToHidden",
+				type, locatorValue)) {
+			WebElement maskWrapper = getElement(type, locatorValue);
+			if (waitHiddenByObserver(maskWrapper, "class", waitInSec)) {
+				return;
 			}
-			Utils.wait(waitInterval);
-			cssclass = maskWrapper.getAttribute("class");
-			System.out.println(cssclass);
-			count++;
+			pollUntilAttributeContains(maskWrapper, "class", "ng-hide", waitInSec, timeoutProfile.getHidePollMs(),
+					timeoutProfile.getHidePollMs());
 		}
 	}
 	
 	/**
-	 * Use this only for angular element. This will wait upto 2 min with poll
-	 * interval of 5 sec to web element(that has class attribute 'ng-hide') to
-	 * be hidden.
+	 * Use this only for angular element. This will wait upto waitInSec with
+	 * hide poll interval of timeout profile (5 sec by default) to web
+	 * element(that has class attribute 'ng-hide') to be hidden.
 	 * 
 	 * @param maskWrapper
 	 *            web element that contains class ng-hide or ng-show
 	 * @param waitInSec
 	 *            approx wait in sec
+	 * @see #setHideWaitMode(HideWaitMode)
 	 */
 	public void waitAngularElementToHidden(WebElement parentElement, LocatorType childElementType, String childElementTypeLocatorValue, int waitInSec) {
-		WebElement maskWrapper = getElement(parentElement, childElementType, childElementTypeLocatorValue);
-		int waitInterval = 1;
-		int MAXCOUNT = waitInSec / waitInterval;
-		int count = 0;
-		String cssclass = maskWrapper.getAttribute("class");
-		System.out.println("0: "+cssclass);
-		while (!cssclass.contains("ng-hide")) {
-			if (count > MAXCOUNT) {
-				break;
-			}
-			Utils.wait(waitInterval);
-			cssclass = maskWrapper.getAttribute("class");
-			System.out.println(cssclass);
-			count++;
-			if(count>=5) {
-				waitInterval = 5;
+		try (OperationMetrics.Sample sample = OperationMetrics.start("waitAngularElementToHidden",
+				childElementType, childElementTypeLocatorValue)) {
+			WebElement maskWrapper = getElement(parentElement, childElementType, childElementTypeLocatorValue);
+			if (waitHiddenByObserver(maskWrapper, "class", waitInSec)) {
+				return;
 			}
+			pollUntilAttributeContains(maskWrapper, "class", "ng-hide", waitInSec, timeoutProfile.getHideFastPollMs(),
+					timeoutProfile.getHidePollMs());
 		}
 	}
 
 	/**
-	 * This will wait upto 2 min with poll interval of 5 sec to web element to
-	 * be hidden.
+	 * This will wait upto hide timeout of timeout profile (2 min by default)
+	 * with its hide poll interval (5 sec by default) to web element to be
+	 * hidden.
 	 * 
 	 * @param element
 	 *            web element that contains style attribute 'display:none'
 	 */
 	public void waitElementToHiddenByDisplayAttrib(LocatorType type, String locatorValue) {
-		waitElementToHiddenByDisplayAttrib(type, locatorValue, DEFAULT_MAX_WAIT_ELEMENT_TOHIDE);
+		waitElementToHiddenByDisplayAttrib(type, locatorValue, timeoutProfile.getHideTimeoutSec());
 	}
 
 	/**
-	 * This will wait upto 2 min with poll interval of 5 sec to web element(that
-	 * has style attribute 'display:none') to be hidden.
+	 * This will wait upto waitInSec with hide poll interval of timeout profile
+	 * (5 sec by default) to web element(that has style attribute
+	 * 'display:none') to be hidden.
 	 * 
 	 * @param element
 	 *            web element that contains style attribute 'display:none'
 	 * @param waitInSec
 	 *            approx wait in sec
+	 * @see #setHideWaitMode(HideWaitMode)
 	 */
 	public void waitElementToHiddenByDisplayAttrib(LocatorType type, String locatorValue, int waitInSec) {
-		WebElement element = getElement(type, locatorValue);
-		int waitInterval = 5;
-		int MAXCOUNT = waitInSec / waitInterval;
+		try (OperationMetrics.Sample sample = OperationMetrics.start("waitElementToHiddenByDisplayAttrib",
+				type, locatorValue)) {
+			WebElement element = getElement(type, locatorValue);
+			if (waitHiddenByObserver(element, "style", waitInSec)) {
+				return;
+			}
+			pollUntilAttributeContains(element, "style", "display:none;", waitInSec, timeoutProfile.getHidePollMs(),
+					timeoutProfile.getHidePollMs());
+		}
+	}
+
+	/**
+	 * poll attribute of element until it contains token, ignoring spaces. First
+	 * {@value #POLLS_BEFORE_BACKOFF} polls are done every firstIntervalMs and
+	 * next ones every intervalMs. Each poll is logged at trace level,
+	 * while waiting a summary is logged at debug level at most every
+	 * {@value #STILL_WAITING_LOG_INTERVAL_MS} ms.
+	 * 
+	 * @return true if attribute contains token.
+	 */
+	private boolean pollUntilAttributeContains(WebElement element, String attribute, String token, int waitInSec,
+			long firstIntervalMs, long intervalMs) {
+		long start = System.nanoTime();
+		long lastSummary = start;
+		long waitInterval = firstIntervalMs;
+		long maxCount = waitInSec * 1000L / firstIntervalMs;
 		int count = 0;
-		String style = element.getAttribute("style");
-		style = style.replaceAll(" ", "");
-		while (!style.contains("display:none;")) {
-			if (count > MAXCOUNT) {
-				break;
+		String value = element.getAttribute(attribute);
+		LOG.trace("poll 0 {}: {}", attribute, value);
+		try {
+			while (!value.replaceAll(" ", "").contains(token)) {
+				if (count > maxCount) {
+					LOG.debug("gave up waiting for {} to contain {} after {} polls, last value: {}", attribute, token,
+							count, value);
+					return false;
+				}
+				sleepMillis(waitInterval);
+				value = element.getAttribute(attribute);
+				count++;
+				if (LOG.isTraceEnabled()) {
+					LOG.trace("poll {} {}: {}", count, attribute, value);
+				}
+				long now = System.nanoTime();
+				if (LOG.isDebugEnabled() && now - lastSummary >= STILL_WAITING_LOG_INTERVAL_MS * 1_000_000L) {
+					LOG.debug("still waiting for {} to contain {}: {} s elapsed, {} polls, last value: {}", attribute,
+							token, (now - start) / 1_000_000_000L, count, value);
+					lastSummary = now;
+				}
+				if (count >= POLLS_BEFORE_BACKOFF) {
+					waitInterval = intervalMs;
+				}
+			}
+			return true;
+		} finally {
+			OperationMetrics.waited(System.nanoTime() - start, count + 1);
+		}
+	}
+
+	/**
+	 * plain interruptible sleep, it holds no monitor so virtual threads are
+	 * not pinned while polling.
+	 */
+	private static void sleepMillis(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new WebDriverException(e);
+		}
+	}
+
+	/**
+	 * wait in page with MutationObserver for element to be hidden.
+	 * 
+	 * @param element
+	 * @param mode
+	 *            'class' to wait for ng-hide class, 'style' to wait for
+	 *            display:none style.
+	 * @param waitInSec
+	 * @return false if observer wait is not usable and caller has to poll.
+	 */
+	private boolean waitHiddenByObserver(WebElement element, String mode, int waitInSec) {
+		if (hideWaitMode != HideWaitMode.OBSERVER || !supportsScripts()) {
+			return false;
+		}
+		long start = System.nanoTime();
+		try {
+			Object hidden = runAsyncScript(JsScripts.WAIT_FOR_HIDDEN, waitInSec, element, mode, waitInSec * 1000L);
+			OperationMetrics.waited(System.nanoTime() - start, 1);
+			if (!Boolean.TRUE.equals(hidden)) {
+				LOG.debug("element is not hidden by {} after {} sec", mode, waitInSec);
+			}
+			return true;
+		} catch (StaleElementReferenceException e) {
+			return true;
+		} catch (WebDriverException e) {
+			LOG.debug("observer wait failed, falling back to polling", e);
+			return false;
+		}
+	}
+
+	/**
+	 * @return true if driver can execute javascript.
+	 */
+	boolean supportsScripts() {
+		return driver instanceof JavascriptExecutor;
+	}
+
+	Object runScript(String script, Object... args) {
+		OperationMetrics.command();
+		return ((JavascriptExecutor) driver).executeScript(script, args);
+	}
+
+	/**
+	 * run async script, raising script timeout first if it is below waitInSec.
+	 */
+	Object runAsyncScript(String script, int waitInSec, Object... args) {
+		ensureScriptTimeout(waitInSec);
+		OperationMetrics.command();
+		return ((JavascriptExecutor) driver).executeAsyncScript(script, args);
+	}
+
+	/**
+	 * async scripts are killed by driver after script timeout, keep it above
+	 * the longest in page wait. Timeout is only ever raised, never lowered
+	 * below the driver's default or a value set with
+	 * {@link #setScriptTimeout(int)}.
+	 */
+	private void ensureScriptTimeout(int waitInSec) {
+		int required = waitInSec + SCRIPT_TIMEOUT_MARGIN;
+		if (scriptTimeoutSec >= required) {
+			return;
+		}
+		scriptTimeoutLock.lock();
+		try {
+			if (scriptTimeoutSec < required) {
+				OperationMetrics.command();
+				driver.manage().timeouts().setScriptTimeout(required, TimeUnit.SECONDS);
+				scriptTimeoutSec = required;
 			}
-			Utils.wait(waitInterval);
-			style = element.getAttribute("style");
-			style = style.replaceAll(" ", "");
-			System.out.println(style);
-			count++;
+		} finally {
+			scriptTimeoutLock.unlock();
+		}
+	}
+
+	/**
+	 * @return script timeout of driver as far as this util knows, the W3C
+	 *         default of {@value #DEFAULT_SCRIPT_TIMEOUT_SEC} sec unless set
+	 *         through this util.
+	 */
+	public int getScriptTimeout() {
+		return scriptTimeoutSec;
+	}
+
+	/**
+	 * set script timeout of driver. Use this instead of setting it on the
+	 * driver directly, so async waits of this util don't lower it.
+	 * 
+	 * @param waitInSec
+	 */
+	public void setScriptTimeout(int waitInSec) {
+		scriptTimeoutLock.lock();
+		try {
+			OperationMetrics.command();
+			driver.manage().timeouts().setScriptTimeout(waitInSec, TimeUnit.SECONDS);
+			scriptTimeoutSec = waitInSec;
+		} finally {
+			scriptTimeoutLock.unlock();
 		}
 	}
 
 	/**
-	 * scroll the element if it is scrollable, on current page. element should
-	 * be visible.
+	 * set scrollTop of element with given id.
 	 * 
 	 * @param id
-	 *            element id attribute value to be scrolled.
 	 * @param h
-	 *            integer value.
+	 *            px from top.
 	 */
 	public void scrollTop(String id, int h) {
-		JavascriptExecutor js = (JavascriptExecutor) driver;
-		String command = "$('#" + id + "').scrollTop(" + h + ");";
-		js.executeScript(command);
+		scripts.call("scrollTop", LocatorType.ID.name(), id, h);
 	}
 
 	/**
@@ -1270,44 +1904,180 @@ public class WebElementsUtil {
 	 * @return
 	 */
 	public List<String> webElementsToText(List<WebElement> webelements) {
-		List<String> elements = new ArrayList<String>();
-		for (WebElement e : webelements) {
-			elements.add(e.getText());
+		return readProperties(webelements, Collections.singletonList(ElementTable.TEXT)).getColumn(ElementTable.TEXT);
+	}
+
+	/**
+	 * {@link #readProperties(List, List, int)} with chunk size of
+	 * {@value #BULK_READ_CHUNK_SIZE}
+	 * 
+	 * @param webelements
+	 * @param properties
+	 * @return
+	 */
+	public ElementTable readProperties(List<WebElement> webelements, List<String> properties) {
+		return readProperties(webelements, properties, BULK_READ_CHUNK_SIZE);
+	}
+
+	/**
+	 * read properties of all web elements with one script call per chunk of
+	 * elements. {@link ElementTable#TEXT} reads visible text, any other name is
+	 * read like {@link WebElement#getAttribute(String)}.
+	 * 
+	 * @param webelements
+	 * @param properties
+	 *            property or attribute names.
+	 * @param chunkSize
+	 *            max number of elements per script call.
+	 * @return table with one row per element in same order.
+	 */
+	public ElementTable readProperties(List<WebElement> webelements, List<String> properties, int chunkSize) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("readProperties", null)) {
+			if (chunkSize < 1) {
+				throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+			}
+			List<List<String>> rows = new ArrayList<List<String>>(webelements.size());
+			if (!supportsScripts()) {
+				for (WebElement e : webelements) {
+					List<String> row = new ArrayList<String>(properties.size());
+					for (String property : properties) {
+						row.add(ElementTable.TEXT.equals(property) ? e.getText() : e.getAttribute(property));
+					}
+					rows.add(row);
+				}
+				return new ElementTable(properties, rows);
+			}
+			for (int from = 0; from < webelements.size(); from += chunkSize) {
+				List<WebElement> chunk = webelements.subList(from, Math.min(from + chunkSize, webelements.size()));
+				List<?> result = (List<?>) runScript(JsScripts.READ_ELEMENT_PROPERTIES, new ArrayList<WebElement>(chunk),
+						properties);
+				for (Object r : result) {
+					List<String> row = new ArrayList<String>(properties.size());
+					for (Object cell : (List<?>) r) {
+						row.add(cell == null ? null : String.valueOf(cell));
+					}
+					rows.add(row);
+				}
+			}
+			return new ElementTable(properties, rows);
+		}
+	}
+
+	/**
+	 * read properties of all elements located by locator.
+	 * 
+	 * @see #readProperties(List, List)
+	 * 
+	 * @param locatorType
+	 * @param locatorValue
+	 * @param properties
+	 * @return empty table if no element is found.
+	 */
+	public ElementTable readProperties(LocatorType locatorType, String locatorValue, List<String> properties) {
+		List<WebElement> elements = getElements(locatorType, locatorValue, defaultWait());
+		if (elements == null) {
+			elements = Collections.emptyList();
 		}
-		return elements;
+		return readProperties(elements, properties);
+	}
+
+	/**
+	 * iterate rows of a list which only renders visible rows, e.g. a
+	 * virtualized list or an mCustomScrollbar container, scrolling it in page
+	 * batch by batch as rows are consumed.
+	 * 
+	 * @see ScrollingRowIterator
+	 * 
+	 * @param container
+	 *            scrolling element.
+	 * @param row
+	 *            locator of row elements, relative to container.
+	 * @param properties
+	 *            property or attribute names read from every row.
+	 * @return iterator starting at top of list.
+	 */
+	public ScrollingRowIterator iterateRows(Locator container, Locator row, List<String> properties) {
+		return new ScrollingRowIterator(this, container, row, properties);
+	}
+
+	/**
+	 * lazy stream of {@link #iterateRows(Locator, Locator, List)}. Short
+	 * circuiting operations like <code>anyMatch</code>, <code>findFirst</code>
+	 * or <code>limit</code> stop scrolling once satisfied.
+	 * 
+	 * @param container
+	 * @param row
+	 * @param properties
+	 * @return stream of distinct rows in list order.
+	 */
+	public Stream<List<String>> streamRows(Locator container, Locator row, List<String> properties) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterateRows(container, row, properties),
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
 	}
 	
+	/**
+	 * click element with given id in page, with jQuery when page has it.
+	 * 
+	 * @param id
+	 */
 	public void clickByIdJS(String id) {
-		JavascriptExecutor js = (JavascriptExecutor) driver;
-		String command = "$('#" + id + "').click();";
-		js.executeScript(command);
+		clickByJS(Locator.id(id), false);
 	}
-	
+
+	/**
+	 * click all elements matching css in page, with jQuery when page has it.
+	 * 
+	 * @param css
+	 */
 	public void clickByCSSJS(String css) {
-		JavascriptExecutor js = (JavascriptExecutor) driver;
-		String command = "$('" + css + "').click();";
-		js.executeScript(command);
+		clickByJS(Locator.css(css), true);
 	}
-	
+
+	/**
+	 * click all elements with given class in page, with jQuery when page has
+	 * it.
+	 * 
+	 * @param clsName
+	 */
 	public void clickByClassNameJS(String clsName) {
-		JavascriptExecutor js = (JavascriptExecutor) driver;
-		String command = "$('." + clsName + "').click();";
-		js.executeScript(command);
+		clickByJS(Locator.of(LocatorType.CLASSNAME, clsName), true);
 	}
-	
+
+	private void clickByJS(Locator locator, boolean all) {
+		try (OperationMetrics.Sample sample = OperationMetrics.start("clickByJS", locator)) {
+			Object clicked = scripts.call("click", locator.getType().name(), locator.getValue(), all);
+			if (clicked instanceof Number && ((Number) clicked).intValue() == 0) {
+				LOG.debug("nothing to click with {}", locator);
+			}
+		}
+	}
+
+	/**
+	 * scroll mCustomScrollbar container to element, container is scrolled
+	 * natively when page has no mCustomScrollbar.
+	 * 
+	 * @param containerId
+	 * @param targetElementId
+	 */
 	public void scrollToElement(String containerId, String targetElementId) {
-		String js = "$('#"+containerId+"').mCustomScrollbar('scrollTo',$('#"+targetElementId+"'));";
-		executeJScript(js);
+		scripts.call("scrollContainerTo", LocatorType.ID.name(), containerId,
+				Arrays.asList(LocatorType.ID.name(), targetElementId));
 	}
-	
+
 	public void scrollToElementByCSS(String containerCSS, String targetElementCSS) {
-		String js = "$('"+containerCSS+"').mCustomScrollbar('scrollTo',$('"+targetElementCSS+"'));";
-		executeJScript(js);
+		scripts.call("scrollContainerTo", LocatorType.CSSSELECTOR.name(), containerCSS,
+				Arrays.asList(LocatorType.CSSSELECTOR.name(), targetElementCSS));
 	}
-	
+
+	/**
+	 * scroll mCustomScrollbar container to px from top, container is scrolled
+	 * natively when page has no mCustomScrollbar.
+	 * 
+	 * @param containerId
+	 * @param pxValueFromTop
+	 */
 	public void scrollTo(String containerId, int pxValueFromTop) {
-		String js = "$('#"+containerId+"').mCustomScrollbar('scrollTo',$('#"+pxValueFromTop+"'));";
-		executeJScript(js);
+		scripts.call("scrollContainerTo", LocatorType.ID.name(), containerId, pxValueFromTop);
 	}
 	
 	public void scrollWebElementIntoView(WebElement element) {
@@ -1316,9 +2086,10 @@ public class WebElementsUtil {
 	
 
 	public void multiSelectDropDownByText(LocatorType locType, String locatorValue, List<String> valueToSelect) {
-		WebElement el = getElement(locType, locatorValue, DEFAULT_WAIT);
+		awaitAppIdleIfEnabled();
+		WebElement el = getElement(locType, locatorValue, defaultWait());
 		if (el != null) {
-			Select dropdown = new Select(el);
+			Select dropdown = select(el);
 			el.sendKeys(Keys.LEFT_CONTROL);
 			for (String value : valueToSelect)
 				dropdown.selectByVisibleText(value);
@@ -1337,10 +2108,10 @@ public class WebElementsUtil {
 	 */
 	public void selectDropDownByAttribute(LocatorType type, String locatorValue, int wait, String attribute,
 			String text) {
-		Utils.wait(1);
+		waitForAppIdle();
 		WebElement el = getElement(type, locatorValue, wait);
 		if (el != null) {
-			Select dropdown = new Select(el);
+			Select dropdown = select(el);
 			String elemValue = dropdown.getOptions().stream()
 					.filter(elem -> elem.getAttribute(attribute).equalsIgnoreCase(text)).findFirst().get()
 					.getAttribute("value");
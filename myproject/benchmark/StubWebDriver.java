@@ -0,0 +1,404 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.logging.Logs;
+
+/**
+ * In process WebDriver for benchmarks. Every call that would be a remote
+ * command on a real driver is counted and costs configurable latency. Lookups
+ * always succeed unless locator is marked missing, scripts answer with
+ * responders registered per script source.
+ *
+ */
+public class StubWebDriver implements WebDriver, JavascriptExecutor {
+
+	private final long latencyNanos;
+	private final AtomicLong commands = new AtomicLong();
+	private final Set<String> missing = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private final Map<String, String> tagNames = new ConcurrentHashMap<String, String>();
+	private final Map<String, Function<Object[], Object>> scriptResponders = new ConcurrentHashMap<String, Function<Object[], Object>>();
+	private volatile int elementCount = 1;
+	private volatile String text = "stub text";
+
+	/**
+	 * @param latencyMicros
+	 *            time spent in every driver command.
+	 */
+	public StubWebDriver(long latencyMicros) {
+		this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+	}
+
+	/**
+	 * @return number of driver commands issued so far.
+	 */
+	public long getCommandCount() {
+		return commands.get();
+	}
+
+	public void resetCommandCount() {
+		commands.set(0);
+	}
+
+	/**
+	 * make lookups with given locator fail with NoSuchElementException.
+	 */
+	public StubWebDriver missing(By by) {
+		missing.add(by.toString());
+		return this;
+	}
+
+	/**
+	 * tag name returned by elements found with given locator, default 'div'.
+	 */
+	public StubWebDriver tagName(By by, String tagName) {
+		tagNames.put(by.toString(), tagName);
+		return this;
+	}
+
+	/**
+	 * number of elements returned by findElements.
+	 */
+	public StubWebDriver elementCount(int elementCount) {
+		this.elementCount = elementCount;
+		return this;
+	}
+
+	public StubWebDriver text(String text) {
+		this.text = text;
+		return this;
+	}
+
+	/**
+	 * answer executeScript/executeAsyncScript of given script source.
+	 */
+	public StubWebDriver onScript(String script, Function<Object[], Object> responder) {
+		scriptResponders.put(script, responder);
+		return this;
+	}
+
+	/**
+	 * count a command and spin for configured latency. Spinning keeps
+	 * sub-millisecond latencies accurate.
+	 */
+	void command() {
+		commands.incrementAndGet();
+		if (latencyNanos > 0) {
+			long end = System.nanoTime() + latencyNanos;
+			while (System.nanoTime() < end) {
+				// spin
+			}
+		}
+	}
+
+	/**
+	 * create element for by without issuing a command, for script
+	 * responders.
+	 */
+	WebElement element(By by) {
+		return new StubWebElement(by.toString());
+	}
+
+	@Override
+	public WebElement findElement(By by) {
+		command();
+		String key = by.toString();
+		if (missing.contains(key)) {
+			throw new NoSuchElementException("Stub element not found: " + key);
+		}
+		return new StubWebElement(key);
+	}
+
+	@Override
+	public List<WebElement> findElements(By by) {
+		command();
+		String key = by.toString();
+		if (missing.contains(key)) {
+			return Collections.emptyList();
+		}
+		List<WebElement> elements = new ArrayList<WebElement>(elementCount);
+		for (int i = 0; i < elementCount; i++) {
+			elements.add(new StubWebElement(key));
+		}
+		return elements;
+	}
+
+	@Override
+	public Object executeScript(String script, Object... args) {
+		command();
+		Function<Object[], Object> responder = scriptResponders.get(script);
+		return responder == null ? null : responder.apply(args);
+	}
+
+	@Override
+	public Object executeAsyncScript(String script, Object... args) {
+		command();
+		Function<Object[], Object> responder = scriptResponders.get(script);
+		return responder == null ? Boolean.TRUE : responder.apply(args);
+	}
+
+	@Override
+	public void get(String url) {
+		command();
+	}
+
+	@Override
+	public String getCurrentUrl() {
+		command();
+		return "about:blank";
+	}
+
+	@Override
+	public String getTitle() {
+		command();
+		return "";
+	}
+
+	@Override
+	public String getPageSource() {
+		command();
+		return "<html></html>";
+	}
+
+	@Override
+	public void close() {
+		command();
+	}
+
+	@Override
+	public void quit() {
+		command();
+	}
+
+	@Override
+	public Set<String> getWindowHandles() {
+		command();
+		return new HashSet<String>(Collections.singleton("stub"));
+	}
+
+	@Override
+	public String getWindowHandle() {
+		command();
+		return "stub";
+	}
+
+	@Override
+	public TargetLocator switchTo() {
+		throw new UnsupportedOperationException("switchTo");
+	}
+
+	@Override
+	public Navigation navigate() {
+		throw new UnsupportedOperationException("navigate");
+	}
+
+	@Override
+	public Options manage() {
+		return new StubOptions();
+	}
+
+	private class StubOptions implements Options {
+
+		@Override
+		public void addCookie(Cookie cookie) {
+			command();
+		}
+
+		@Override
+		public void deleteCookieNamed(String name) {
+			command();
+		}
+
+		@Override
+		public void deleteCookie(Cookie cookie) {
+			command();
+		}
+
+		@Override
+		public void deleteAllCookies() {
+			command();
+		}
+
+		@Override
+		public Set<Cookie> getCookies() {
+			command();
+			return Collections.emptySet();
+		}
+
+		@Override
+		public Cookie getCookieNamed(String name) {
+			command();
+			return null;
+		}
+
+		@Override
+		public Timeouts timeouts() {
+			return new StubTimeouts();
+		}
+
+		@Override
+		public ImeHandler ime() {
+			throw new UnsupportedOperationException("ime");
+		}
+
+		@Override
+		public Window window() {
+			throw new UnsupportedOperationException("window");
+		}
+
+		@Override
+		public Logs logs() {
+			throw new UnsupportedOperationException("logs");
+		}
+	}
+
+	private class StubTimeouts implements Timeouts {
+
+		@Override
+		public Timeouts implicitlyWait(long time, TimeUnit unit) {
+			command();
+			return this;
+		}
+
+		@Override
+		public Timeouts setScriptTimeout(long time, TimeUnit unit) {
+			command();
+			return this;
+		}
+
+		@Override
+		public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
+			command();
+			return this;
+		}
+	}
+
+	private class StubWebElement implements WebElement {
+
+		private final String key;
+
+		private StubWebElement(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public void click() {
+			command();
+		}
+
+		@Override
+		public void submit() {
+			command();
+		}
+
+		@Override
+		public void sendKeys(CharSequence... keysToSend) {
+			command();
+		}
+
+		@Override
+		public void clear() {
+			command();
+		}
+
+		@Override
+		public String getTagName() {
+			command();
+			String tagName = tagNames.get(key);
+			return tagName == null ? "div" : tagName;
+		}
+
+		@Override
+		public String getAttribute(String name) {
+			command();
+			return "";
+		}
+
+		@Override
+		public boolean isSelected() {
+			command();
+			return false;
+		}
+
+		@Override
+		public boolean isEnabled() {
+			command();
+			return true;
+		}
+
+		@Override
+		public String getText() {
+			command();
+			return text;
+		}
+
+		@Override
+		public List<WebElement> findElements(By by) {
+			return StubWebDriver.this.findElements(by);
+		}
+
+		@Override
+		public WebElement findElement(By by) {
+			return StubWebDriver.this.findElement(by);
+		}
+
+		@Override
+		public boolean isDisplayed() {
+			command();
+			return true;
+		}
+
+		@Override
+		public Point getLocation() {
+			command();
+			return new Point(0, 0);
+		}
+
+		@Override
+		public Dimension getSize() {
+			command();
+			return new Dimension(10, 10);
+		}
+
+		@Override
+		public Rectangle getRect() {
+			command();
+			return new Rectangle(0, 0, 10, 10);
+		}
+
+		@Override
+		public String getCssValue(String propertyName) {
+			command();
+			return "";
+		}
+
+		@Override
+		public <X> X getScreenshotAs(OutputType<X> target) {
+			throw new UnsupportedOperationException("getScreenshotAs");
+		}
+
+		@Override
+		public String toString() {
+			return "StubWebElement[" + key + "]";
+		}
+	}
+}
@@ -0,0 +1,335 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+/**
+ * JMH benchmarks of WebElementsUtil hot paths against {@link StubWebDriver}.
+ * Throughput shows cost of util itself (latencyMicros = 0) and with simulated
+ * remote latency, <code>driverCommands</code> counter divided by ops/s gives
+ * number of driver commands per call. Allocations are reported by the gc
+ * profiler.
+ *
+ * <pre>
+ * java -cp ... WebElementsUtilBenchmark                  run benchmarks with gc profiler
+ * java -cp ... WebElementsUtilBenchmark --check-commands fail if a method issues more commands than budgeted
+ * </pre>
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WebElementsUtilBenchmark {
+
+	private static final String ELEMENT_ID = "saveBtn";
+	private static final String SELECT_ID = "country";
+	private static final String SPINNER_ID = "spinner";
+	private static final String ROW_CSS = "table tr td";
+	private static final String LIST_ID = "results";
+	private static final String LIST_ROW_CSS = ".row";
+
+	/**
+	 * rows of stubbed scrolling list per benchmark size.
+	 */
+	private static final int LIST_ROWS_PER_SIZE = 10;
+
+	/**
+	 * max driver commands per call, checked by --check-commands.
+	 */
+	private static final Map<String, Integer> COMMAND_BUDGET = new LinkedHashMap<String, Integer>();
+
+	static {
+		COMMAND_BUDGET.put("getElement", 1);
+		COMMAND_BUDGET.put("getElementCached", 1);
+		// implicit wait off, find, find timeout back on
+		COMMAND_BUDGET.put("getElementNoImplicitWait", 3);
+		COMMAND_BUDGET.put("getElementNoImplicitWaitExplicitOnly", 1);
+		COMMAND_BUDGET.put("getVisibleElement", 2);
+		COMMAND_BUDGET.put("getSelectOptions", 2);
+		COMMAND_BUDGET.put("webElementsToText", 1);
+		COMMAND_BUDGET.put("sendKeys", 3);
+		// actionability check in page, then native click for trusted events
+		COMMAND_BUDGET.put("clickCheckBox", 2);
+		COMMAND_BUDGET.put("clickByIdJS", 1);
+		COMMAND_BUDGET.put("waitUntilWebElementHidden", 1);
+		COMMAND_BUDGET.put("waitAngularElementToHidden", 2);
+		COMMAND_BUDGET.put("streamRows", 1);
+	}
+
+	/**
+	 * driver commands issued by measured calls.
+	 */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Commands {
+		public long driverCommands;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			driverCommands = 0;
+		}
+	}
+
+	@Param({ "0", "200" })
+	public long latencyMicros;
+
+	@Param({ "500" })
+	public int size;
+
+	private StubWebDriver driver;
+	private WebElementsUtil util;
+	private StubWebDriver cachedDriver;
+	private WebElementsUtil cachedUtil;
+	private List<WebElement> rows;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		driver = createDriver(latencyMicros, size);
+		util = WebElementsUtil.getInstance(driver);
+		cachedDriver = createDriver(latencyMicros, size);
+		cachedUtil = WebElementsUtil.getInstance(cachedDriver);
+		cachedUtil.setElementCache(true);
+		rows = driver.elementCount(size).findElements(By.cssSelector(ROW_CSS));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		WebElementsUtil.release(driver);
+		WebElementsUtil.release(cachedDriver);
+	}
+
+	@Benchmark
+	public Object getElement(Commands commands) {
+		long before = driver.getCommandCount();
+		Object result = util.getElementById(ELEMENT_ID);
+		commands.driverCommands += driver.getCommandCount() - before;
+		return result;
+	}
+
+	@Benchmark
+	public Object getElementCached(Commands commands) {
+		long before = cachedDriver.getCommandCount();
+		Object result = cachedUtil.getElementById(ELEMENT_ID);
+		commands.driverCommands += cachedDriver.getCommandCount() - before;
+		return result;
+	}
+
+	@Benchmark
+	public Object getElementNoImplicitWait(Commands commands) {
+		long before = driver.getCommandCount();
+		Object result = util.getElementNoImplicitWait(LocatorType.ID, ELEMENT_ID);
+		commands.driverCommands += driver.getCommandCount() - before;
+		return result;
+	}
+
+	@Benchmark
+	public Object getVisibleElement(Commands commands) {
+		long before = driver.getCommandCount();
+		Object result = util.getVisibleElement(LocatorType.ID, ELEMENT_ID, 15);
+		commands.driverCommands += driver.getCommandCount() - before;
+		return result;
+	}
+
+	@Benchmark
+	public Object getSelectOptions(Commands commands) {
+		long before = driver.getCommandCount();
+		Object result = util.getSelectOptionsById(SELECT_ID);
+		commands.driverCommands += driver.getCommandCount() - before;
+		return result;
+	}
+
+	@Benchmark
+	public Object webElementsToText(Commands commands) {
+		long before = driver.getCommandCount();
+		Object result = util.webElementsToText(rows);
+		commands.driverCommands += driver.getCommandCount() - before;
+		return result;
+	}
+
+	@Benchmark
+	public void sendKeys(Commands commands) {
+		long before = driver.getCommandCount();
+		util.sendKeysById(ELEMENT_ID, "text");
+		commands.driverCommands += driver.getCommandCount() - before;
+	}
+
+	@Benchmark
+	public void clickCheckBox(Commands commands) {
+		long before = driver.getCommandCount();
+		util.clickCheckBoxById(ELEMENT_ID);
+		commands.driverCommands += driver.getCommandCount() - before;
+	}
+
+	@Benchmark
+	public void clickByIdJS(Commands commands) {
+		long before = driver.getCommandCount();
+		util.clickByIdJS(ELEMENT_ID);
+		commands.driverCommands += driver.getCommandCount() - before;
+	}
+
+	@Benchmark
+	public boolean waitUntilWebElementHidden(Commands commands) {
+		long before = driver.getCommandCount();
+		boolean result = util.waitUntilWebElementHidden(LocatorType.ID, SPINNER_ID, 15);
+		commands.driverCommands += driver.getCommandCount() - before;
+		return result;
+	}
+
+	@Benchmark
+	public void waitAngularElementToHidden(Commands commands) {
+		long before = driver.getCommandCount();
+		util.waitAngularElementToHidden(LocatorType.ID, ELEMENT_ID, 15);
+		commands.driverCommands += driver.getCommandCount() - before;
+	}
+
+	@Benchmark
+	public long streamRows(Commands commands) {
+		long before = driver.getCommandCount();
+		long result = streamList(util);
+		commands.driverCommands += driver.getCommandCount() - before;
+		return result;
+	}
+
+	private static long streamList(WebElementsUtil util) {
+		return util.streamRows(Locator.id(LIST_ID), Locator.css(LIST_ROW_CSS), Arrays.asList(ElementTable.TEXT))
+				.count();
+	}
+
+	static StubWebDriver createDriver(long latencyMicros, int size) {
+		StubWebDriver driver = new StubWebDriver(latencyMicros);
+		driver.missing(By.id(SPINNER_ID)).tagName(By.id(SELECT_ID), "select");
+		driver.onScript(JsScripts.READ_SELECT_OPTIONS, args -> {
+			List<List<Object>> options = new ArrayList<List<Object>>(size);
+			for (int i = 0; i < size; i++) {
+				options.add(Arrays.<Object> asList("option " + i, "string:" + i, i == 0, false));
+			}
+			return options;
+		});
+		driver.onScript(JsScripts.READ_ELEMENT_PROPERTIES, args -> {
+			List<?> elements = (List<?>) args[0];
+			List<List<Object>> result = new ArrayList<List<Object>>(elements.size());
+			for (int i = 0; i < elements.size(); i++) {
+				result.add(Arrays.<Object> asList("cell " + i));
+			}
+			return result;
+		});
+		driver.onScript(JsScripts.ACTIONABLE_ELEMENT,
+				args -> Arrays.asList("ok", driver.element(By.cssSelector(String.valueOf(args[1])))));
+		driver.onScript(JsScripts.CALL_HELPER, args -> Arrays.asList(1L));
+		driver.onScript(JsScripts.SCROLL_ROWS, args -> {
+			int total = size * LIST_ROWS_PER_SIZE;
+			int from = ((Number) args[5]).intValue();
+			int to = Math.min(total, from + ((Number) args[6]).intValue());
+			List<List<Object>> batch = new ArrayList<List<Object>>(to - from);
+			List<String> keys = new ArrayList<String>(to - from);
+			for (int i = from; i < to; i++) {
+				batch.add(Arrays.<Object> asList("row " + i));
+				keys.add("key:" + i);
+			}
+			return Arrays.asList(batch, to >= total, (long) to, keys);
+		});
+		driver.onScript(JsScripts.CACHED_FIND, args -> args[0] != null
+				? Arrays.asList(true, args[0], "stub", 0L)
+				: Arrays.asList(false, driver.element(By.id(String.valueOf(args[4]))), "stub", 0L));
+		return driver;
+	}
+
+	/**
+	 * run each benchmarked call once on warm instance and compare number of
+	 * driver commands with {@link #COMMAND_BUDGET}.
+	 *
+	 * @return false if any call is over budget.
+	 */
+	static boolean checkCommands() {
+		StubWebDriver driver = createDriver(0, 10);
+		WebElementsUtil util = WebElementsUtil.getInstance(driver);
+		List<WebElement> rows = driver.elementCount(10).findElements(By.cssSelector(ROW_CSS));
+		Map<String, Consumer<WebElementsUtil>> calls = new LinkedHashMap<String, Consumer<WebElementsUtil>>();
+		calls.put("getElement", u -> u.getElementById(ELEMENT_ID));
+		calls.put("getElementNoImplicitWait", u -> u.getElementNoImplicitWait(LocatorType.ID, ELEMENT_ID));
+		calls.put("getVisibleElement", u -> u.getVisibleElement(LocatorType.ID, ELEMENT_ID, 15));
+		calls.put("getSelectOptions", u -> u.getSelectOptionsById(SELECT_ID));
+		calls.put("webElementsToText", u -> u.webElementsToText(rows));
+		calls.put("sendKeys", u -> u.sendKeysById(ELEMENT_ID, "text"));
+		calls.put("clickCheckBox", u -> u.clickCheckBoxById(ELEMENT_ID));
+		calls.put("clickByIdJS", u -> u.clickByIdJS(ELEMENT_ID));
+		calls.put("waitUntilWebElementHidden", u -> u.waitUntilWebElementHidden(LocatorType.ID, SPINNER_ID, 15));
+		calls.put("waitAngularElementToHidden", u -> u.waitAngularElementToHidden(LocatorType.ID, ELEMENT_ID, 15));
+		calls.put("getElementCached", u -> {
+			u.setElementCache(true);
+			u.getElementById(ELEMENT_ID);
+		});
+		calls.put("streamRows", u -> streamList(u));
+		boolean ok = true;
+		try {
+			for (Map.Entry<String, Consumer<WebElementsUtil>> call : calls.entrySet()) {
+				ok &= checkCommands(call.getKey(), driver, util, call.getValue());
+			}
+		} finally {
+			WebElementsUtil.release(driver);
+		}
+		// own driver, so implicit wait is still unknown when profile is set
+		StubWebDriver explicitDriver = createDriver(0, 10);
+		WebElementsUtil explicitUtil = WebElementsUtil.getInstance(explicitDriver);
+		explicitUtil.setTimeoutProfile(explicitUtil.getTimeoutProfile().withExplicitWaitsOnly(true));
+		try {
+			ok &= checkCommands("getElementNoImplicitWaitExplicitOnly", explicitDriver, explicitUtil,
+					u -> u.getElementNoImplicitWait(LocatorType.ID, ELEMENT_ID));
+		} finally {
+			WebElementsUtil.release(explicitDriver);
+		}
+		return ok;
+	}
+
+	/**
+	 * run call once to warm up, then once counting commands.
+	 */
+	private static boolean checkCommands(String name, StubWebDriver driver, WebElementsUtil util,
+			Consumer<WebElementsUtil> call) {
+		call.accept(util);
+		long before = driver.getCommandCount();
+		call.accept(util);
+		long used = driver.getCommandCount() - before;
+		int budget = COMMAND_BUDGET.get(name);
+		System.out.println(String.format("%-38s %3d commands (budget %d)%s", name, used, budget,
+				used > budget ? " OVER BUDGET" : ""));
+		return used <= budget;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		if (Arrays.asList(args).contains("--check-commands")) {
+			System.exit(checkCommands() ? 0 : 1);
+		}
+		new Runner(new OptionsBuilder().include(WebElementsUtilBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,175 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+/**
+ * {@link BrowserSessionPool} over {@link DomDriver} sessions.
+ */
+public class BrowserSessionPoolTest {
+
+	private BrowserSessionPool pool;
+
+	@AfterMethod
+	public void tearDown() {
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void leaseResetsSessionForNextLease() {
+		pool = new BrowserSessionPool(DomDriver::new, 1, 10);
+		WebDriver driver;
+		try (BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS)) {
+			driver = lease.getDriver();
+			((DomDriver) driver).loadHtml("<input id='user'>", "http://localhost/login");
+			lease.getUtil().sendKeysById("user", "admin");
+			driver.manage().addCookie(new Cookie("sid", "1"));
+		}
+		try (BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS)) {
+			assertSame(lease.getDriver(), driver);
+			assertEquals(driver.getCurrentUrl(), "about:blank");
+			assertTrue(driver.manage().getCookies().isEmpty());
+		}
+		assertEquals(pool.getCreatedCount(), 1);
+		assertEquals(pool.getIdleCount(), 1);
+	}
+
+	@Test
+	public void resetRestoresUtilSettings() {
+		pool = new BrowserSessionPool(DomDriver::new, 1, 10);
+		WebElementsUtil util;
+		TimeoutProfile profile;
+		try (BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS)) {
+			util = lease.getUtil();
+			profile = util.getTimeoutProfile();
+			util.setTimeoutProfile(TimeoutProfile.LOCAL.withFindTimeoutSec(1));
+			util.setHideWaitMode(HideWaitMode.POLL);
+			util.setAutoWaitForAppIdle(true);
+			util.setResilientElements(true);
+			util.setElementCache(true);
+			util.setLocatorHealer(new LocatorHealer(Paths.get("target", "pool-test-fingerprints.properties")));
+			util.setImplicitWait(5);
+			util.setScriptTimeout(90);
+		}
+		try (BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS)) {
+			assertSame(lease.getUtil(), util);
+			assertSame(util.getTimeoutProfile(), profile);
+			assertEquals(util.getHideWaitMode(), HideWaitMode.OBSERVER);
+			assertFalse(util.isAutoWaitForAppIdle());
+			assertFalse(util.isResilientElements());
+			assertFalse(util.isElementCache());
+			assertNull(util.getLocatorHealer());
+			assertEquals(util.getImplicitWait(), profile.getFindTimeoutSec());
+			assertEquals(util.getScriptTimeout(), 30);
+		}
+	}
+
+	@Test
+	public void recyclesAfterMaxLeasesAndBrokenLease() {
+		pool = new BrowserSessionPool(DomDriver::new, 1, 2);
+		WebDriver first;
+		try (BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS)) {
+			first = lease.getDriver();
+		}
+		try (BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS)) {
+			assertSame(lease.getDriver(), first);
+		}
+		WebDriver second;
+		try (BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS)) {
+			second = lease.getDriver();
+			assertNotSame(second, first);
+			lease.markBroken();
+		}
+		try (BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS)) {
+			assertNotSame(lease.getDriver(), second);
+		}
+		assertEquals(pool.getCreatedCount(), 3);
+		assertEquals(pool.getRecycledCount(), 2);
+		assertEquals(pool.getSessionCount(), 1);
+	}
+
+	@Test
+	public void acquireTimesOutWhenPoolIsFull() {
+		pool = new BrowserSessionPool(DomDriver::new, 1, 10);
+		BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS);
+		try {
+			long start = System.nanoTime();
+			expectThrows(WebDriverException.class, () -> pool.acquire(250, TimeUnit.MILLISECONDS));
+			assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+		} finally {
+			lease.close();
+		}
+	}
+
+	@Test(timeOut = 10000)
+	public void waiterGetsSlotOfRecycledSession() throws Exception {
+		pool = new BrowserSessionPool(DomDriver::new, 1, 10);
+		BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS);
+		WebDriver broken = lease.getDriver();
+		CompletableFuture<BrowserSessionPool.Lease> waiter = CompletableFuture
+				.supplyAsync(() -> pool.acquire(5, TimeUnit.SECONDS));
+		Thread.sleep(200);
+		assertFalse(waiter.isDone());
+		long start = System.nanoTime();
+		lease.markBroken();
+		lease.close();
+		try (BrowserSessionPool.Lease next = waiter.get(1, TimeUnit.SECONDS)) {
+			assertNotSame(next.getDriver(), broken);
+		}
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+	}
+
+	@Test(timeOut = 10000)
+	public void waiterGetsReleasedSession() throws Exception {
+		pool = new BrowserSessionPool(DomDriver::new, 1, 10);
+		BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS);
+		WebDriver driver = lease.getDriver();
+		CompletableFuture<BrowserSessionPool.Lease> waiter = CompletableFuture
+				.supplyAsync(() -> pool.acquire(5, TimeUnit.SECONDS));
+		Thread.sleep(200);
+		long start = System.nanoTime();
+		lease.close();
+		try (BrowserSessionPool.Lease next = waiter.get(1, TimeUnit.SECONDS)) {
+			assertSame(next.getDriver(), driver);
+		}
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+	}
+
+	@Test(timeOut = 10000)
+	public void closeWakesWaiters() throws Exception {
+		pool = new BrowserSessionPool(DomDriver::new, 1, 10);
+		BrowserSessionPool.Lease lease = pool.acquire(1, TimeUnit.SECONDS);
+		CompletableFuture<BrowserSessionPool.Lease> waiter = CompletableFuture
+				.supplyAsync(() -> pool.acquire(5, TimeUnit.SECONDS));
+		Thread.sleep(200);
+		pool.close();
+		ExecutionException e = expectThrows(ExecutionException.class, () -> waiter.get(1, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof IllegalStateException);
+		lease.close();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void closedPoolRejectsAcquire() {
+		pool = new BrowserSessionPool(DomDriver::new, 1, 10);
+		pool.close();
+		pool.acquire(1, TimeUnit.SECONDS);
+	}
+}
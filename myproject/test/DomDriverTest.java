@@ -0,0 +1,118 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+import java.util.Arrays;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.Select;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * {@link DomDriver} basics through {@link WebElementsUtil}, no browser
+ * needed.
+ */
+public class DomDriverTest {
+
+	private static final String PAGE = "<html><head><title>Login</title></head><body>"
+			+ "<form id='login'>"
+			+ "<input id='user' value='guest'>"
+			+ "<input id='token' type='hidden' value='t'>"
+			+ "<select id='country'><option value='string:in'>India</option>"
+			+ "<option value='string:us'>United States</option></select>"
+			+ "<input id='terms' type='checkbox'>"
+			+ "</form>"
+			+ "<div id='spinner' class='mask ng-hide'>Loading</div>"
+			+ "<div id='banner' style='display: none'>Saved</div>"
+			+ "<p id='help'>Need <a href='#help'>help</a>?</p>"
+			+ "</body></html>";
+
+	private DomDriver driver;
+	private WebElementsUtil util;
+
+	@BeforeMethod
+	public void setUp() {
+		driver = new DomDriver();
+		driver.loadHtml(PAGE);
+		util = WebElementsUtil.getInstance(driver);
+	}
+
+	@AfterMethod
+	public void tearDown() {
+		WebElementsUtil.quit(driver);
+	}
+
+	@Test
+	public void sendKeysReplacesValue() {
+		util.sendKeysById("user", "admin");
+		assertEquals(driver.findElement(By.id("user")).getAttribute("value"), "admin");
+	}
+
+	@Test
+	public void selectsOptionByTextAndValue() {
+		assertEquals(util.getSelectOptionsById("country"), Arrays.asList("India", "United States"));
+		util.selectDropDownByTextID("country", "United States");
+		assertEquals(new Select(driver.findElement(By.id("country"))).getFirstSelectedOption().getText(),
+				"United States");
+		util.selectDropDownByStringValueID("country", "in");
+		assertEquals(driver.findElement(By.id("country")).getAttribute("value"), "string:in");
+	}
+
+	@Test
+	public void clickTogglesCheckbox() {
+		util.clickElementById("terms");
+		assertTrue(driver.findElement(By.id("terms")).isSelected());
+		util.clickElementById("terms");
+		assertFalse(driver.findElement(By.id("terms")).isSelected());
+	}
+
+	@Test
+	public void findsByLinkTextAndXpath() {
+		WebElement link = util.getElement(LocatorType.LINKTEXT, "help");
+		assertEquals(link.getAttribute("href"), "#help");
+		WebElement paragraph = util.getElement(LocatorType.XPATH, "//a[normalize-space()='help']/..");
+		assertEquals(paragraph.getAttribute("id"), "help");
+		assertEquals(util.getElement(LocatorType.PARTIALLINKTEXT, "hel").getText(), "help");
+	}
+
+	@Test
+	public void detectsHiddenElements() {
+		assertFalse(driver.findElement(By.id("spinner")).isDisplayed());
+		assertFalse(driver.findElement(By.id("banner")).isDisplayed());
+		assertFalse(driver.findElement(By.id("token")).isDisplayed());
+		assertEquals(driver.findElement(By.id("banner")).getText(), "");
+		assertTrue(driver.findElement(By.id("user")).isDisplayed());
+		assertTrue(util.waitUntilWebElementHidden(LocatorType.ID, "spinner", 1));
+	}
+
+	@Test(expectedExceptions = StaleElementReferenceException.class)
+	public void elementsGoStaleAfterNavigation() {
+		WebElement user = util.getElementById("user");
+		driver.loadHtml(PAGE);
+		user.getAttribute("value");
+	}
+
+	@Test
+	public void frameSwitchIsUnsupportedCommand() {
+		UnsupportedCommandException e = expectThrows(UnsupportedCommandException.class,
+				() -> driver.switchTo().frame("content"));
+		assertTrue(e.getMessage().startsWith("DomDriver doesn't support frames"));
+	}
+
+	@Test
+	public void backRestoresPreviousPage() {
+		driver.loadHtml("<h1 id='next'>Next</h1>");
+		assertTrue(util.isPresentNow(LocatorType.ID, "next"));
+		driver.navigate().back();
+		assertEquals(driver.getTitle(), "Login");
+		assertFalse(util.isPresentNow(LocatorType.ID, "next"));
+	}
+}
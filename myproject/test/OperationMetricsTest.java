@@ -0,0 +1,114 @@
+package com.symantec.cws.automation.test.framework.ui.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.remote.RemoteWebElement;
+import org.openqa.selenium.remote.internal.WebElementToJsonConverter;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * elements looked up with {@link OperationMetrics} enabled must still be
+ * usable as script arguments of a remote driver.
+ */
+public class OperationMetricsTest {
+
+	private static final String ELEMENT_ID = "0f5e-1";
+
+	private WebDriver driver;
+	private WebElementsUtil util;
+	private Object[] scriptArgs;
+
+	@BeforeMethod
+	public void setUp() {
+		OperationMetrics.reset();
+		OperationMetrics.setEnabled(true);
+		driver = remoteStyleDriver();
+		util = WebElementsUtil.getInstance(driver);
+	}
+
+	@AfterMethod
+	public void tearDown() {
+		OperationMetrics.setEnabled(false);
+		OperationMetrics.reset();
+		WebElementsUtil.quit(driver);
+	}
+
+	@Test
+	public void lookedUpElementIsDriversOwn() {
+		WebElement element = util.getElementById("save");
+		assertFalse(Proxy.isProxyClass(element.getClass()));
+		assertTrue(element instanceof RemoteWebElement);
+		assertEquals(util.getElements(LocatorType.ID, "save").get(0).getClass(), RemoteWebElement.class);
+		assertTrue(OperationMetrics.summary(10).contains("getElement"));
+	}
+
+	@Test
+	public void lookedUpElementConvertsAsScriptArgument() {
+		WebElement element = util.getElementById("save");
+		((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView();", element);
+		assertEquals(((Map<?, ?>) scriptArgs[0]).values().iterator().next(), ELEMENT_ID);
+	}
+
+	@Test
+	public void countedElementUnwrapsForConverterAndEquals() {
+		RemoteWebElement real = remoteElement();
+		WebElement counted = OperationMetrics.counted(real);
+		assertTrue(Proxy.isProxyClass(counted.getClass()));
+		assertEquals(new WebElementToJsonConverter().apply(counted),
+				new WebElementToJsonConverter().apply(real));
+		assertTrue(real.equals(counted));
+		assertTrue(counted instanceof Locatable);
+		assertSame(OperationMetrics.uncounted(counted), real);
+	}
+
+	private static RemoteWebElement remoteElement() {
+		RemoteWebElement element = new RemoteWebElement();
+		element.setId(ELEMENT_ID);
+		return element;
+	}
+
+	/**
+	 * driver returning {@link RemoteWebElement}s and converting script
+	 * arguments like RemoteWebDriver does.
+	 */
+	private WebDriver remoteStyleDriver() {
+		return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { WebDriver.class, JavascriptExecutor.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "findElement":
+						assertEquals(args[0], By.id("save"));
+						return remoteElement();
+					case "findElements":
+						return Collections.singletonList(remoteElement());
+					case "executeScript":
+						scriptArgs = ((Collection<?>) new WebElementToJsonConverter()
+								.apply(Arrays.asList((Object[]) args[1]))).toArray();
+						return null;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					case "toString":
+						return "remote style driver";
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+}